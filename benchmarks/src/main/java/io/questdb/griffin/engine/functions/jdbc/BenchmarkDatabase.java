@@ -0,0 +1,73 @@
+package io.questdb.griffin.engine.functions.jdbc;
+
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.DefaultCairoConfiguration;
+import io.questdb.griffin.CompiledQuery;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * In-memory H2 database registered as a JDBC pool of a throwaway QuestDB engine.
+ */
+final class BenchmarkDatabase implements Closeable {
+    private static final String URL = "jdbc:h2:mem:bench";
+    private final Path root;
+    private final CairoEngine engine;
+    private final SqlCompiler compiler;
+    // keeps the in-memory database alive while pool connections come and go
+    private final Connection connection;
+
+    /**
+     * @param poolOptions optional {@code jdbc_pool_init} columns, e.g. {@code ", 1024 batch_size"}
+     */
+    BenchmarkDatabase(String poolName, String poolOptions) throws IOException, SQLException, SqlException {
+        root = Files.createTempDirectory("jdbc-bench");
+        engine = new CairoEngine(new DefaultCairoConfiguration(root.toString()));
+        compiler = new SqlCompiler(engine);
+        connection = DriverManager.getConnection(URL + ";DB_CLOSE_DELAY=-1");
+        compiler.compile("select jdbc_pool_init(select '" + poolName + "' name, '" + URL + "' url, " +
+                "cast('' as STRING) user, cast('' as STRING) password" + poolOptions +
+                " from long_sequence(1)) from long_sequence(1)");
+    }
+
+    void create(BenchmarkSchema schema, int rows) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop table if exists " + schema.tableName());
+            statement.execute(schema.createTable());
+            statement.execute(schema.populate(rows));
+        }
+    }
+
+    CompiledQuery compile(String query) throws SqlException {
+        return compiler.compile(query);
+    }
+
+    CairoEngine getEngine() {
+        return engine;
+    }
+
+    @Override
+    public void close() throws IOException {
+        compiler.close();
+        engine.close();
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+        try (Stream<Path> files = Files.walk(root)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package io.questdb.griffin.engine.functions.jdbc;
+
+/**
+ * Shapes of the H2 tables read by the benchmarks. Numeric tables cycle BIGINT, DOUBLE and INT columns,
+ * string tables have VARCHAR columns of 32 characters.
+ */
+public enum BenchmarkSchema {
+    NARROW_NUMERIC(4, false),
+    NARROW_STRING(4, true),
+    WIDE_NUMERIC(32, false),
+    WIDE_STRING(32, true);
+
+    static final int STRING_LENGTH = 32;
+    private final int columnCount;
+    private final boolean strings;
+
+    BenchmarkSchema(int columnCount, boolean strings) {
+        this.columnCount = columnCount;
+        this.strings = strings;
+    }
+
+    String tableName() {
+        return name().toLowerCase();
+    }
+
+    String createTable() {
+        StringBuilder sql = new StringBuilder("create table ").append(tableName()).append('(');
+        for (int col = 0; col < columnCount; col++) {
+            sql.append(col > 0 ? ", " : "").append('c').append(col).append(' ').append(columnType(col));
+        }
+        return sql.append(')').toString();
+    }
+
+    String populate(int rows) {
+        StringBuilder sql = new StringBuilder("insert into ").append(tableName()).append(" select ");
+        for (int col = 0; col < columnCount; col++) {
+            sql.append(col > 0 ? ", " : "").append(columnValue(col));
+        }
+        return sql.append(" from system_range(1, ").append(rows).append(')').toString();
+    }
+
+    String selectAll() {
+        return "select * from " + tableName();
+    }
+
+    private String columnType(int col) {
+        if (strings) {
+            return "varchar(" + STRING_LENGTH + ")";
+        }
+        switch (col % 3) {
+            case 0:
+                return "bigint";
+            case 1:
+                return "double";
+            default:
+                return "int";
+        }
+    }
+
+    private String columnValue(int col) {
+        if (strings) {
+            return "rpad(cast(x + " + col + " as varchar), " + STRING_LENGTH + ", '-')";
+        }
+        switch (col % 3) {
+            case 0:
+                return "x + " + col;
+            case 1:
+                return "x / " + (col + 1) + ".0";
+            default:
+                return "cast(x + " + col + " as int)";
+        }
+    }
+}
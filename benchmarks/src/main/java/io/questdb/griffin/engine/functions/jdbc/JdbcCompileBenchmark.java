@@ -0,0 +1,70 @@
+package io.questdb.griffin.engine.functions.jdbc;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.sql.Function;
+import io.questdb.griffin.engine.functions.constants.StrConstant;
+import io.questdb.std.ObjList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of {@link JdbcFunctionFactory#newInstance}, i.e. what {@code jdbc()} adds to compilation of a query:
+ * borrowing a connection, preparing the statement and resolving metadata, or a metadata cache hit
+ * with {@code metadata_ttl}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JdbcCompileBenchmark {
+    @Param({"NARROW_NUMERIC", "WIDE_STRING"})
+    private BenchmarkSchema schema;
+    /**
+     * {@code metadata_ttl} of the pool in milliseconds, 0 describes the statement on every compilation.
+     */
+    @Param({"0", "60000"})
+    private long metadataTtl;
+
+    private BenchmarkDatabase database;
+    private final JdbcFunctionFactory functionFactory = new JdbcFunctionFactory();
+    private final ObjList<Function> args = new ObjList<>();
+    private CairoConfiguration configuration;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        String poolName = "bench_ttl_" + metadataTtl;
+        database = new BenchmarkDatabase(poolName, ", cast(" + metadataTtl + " as long) metadata_ttl");
+        database.create(schema, 1);
+        configuration = database.getEngine().getConfiguration();
+        args.add(new StrConstant(0, poolName));
+        args.add(new StrConstant(0, schema.selectAll()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        database.close();
+    }
+
+    @Benchmark
+    public Function newInstance() throws Exception {
+        Function function = functionFactory.newInstance(args, 0, configuration);
+        // releases the connection borrowed for the metadata
+        function.close();
+        return function;
+    }
+}
@@ -0,0 +1,147 @@
+package io.questdb.griffin.engine.functions.jdbc;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cairo.sql.RecordMetadata;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads every cell of an H2 table through {@code jdbc()} and through plain JDBC. Scores of {@link #cursor} and
+ * {@link #rawJdbc} are rows per second, run with {@code -prof gc} to see allocation per row in
+ * {@code gc.alloc.rate.norm}. {@link #toTop} is the cost of rewinding the cursor up to its first row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JdbcCursorBenchmark {
+    private static final int ROWS = 10_000;
+
+    @Param({"NARROW_NUMERIC", "NARROW_STRING", "WIDE_NUMERIC", "WIDE_STRING"})
+    private BenchmarkSchema schema;
+    /**
+     * {@code batch_size} of the pool, 0 reads cells straight from the result set.
+     */
+    @Param({"0", "1024"})
+    private int batchSize;
+
+    private BenchmarkDatabase database;
+    private RecordCursorFactory factory;
+    private int[] columnTypes;
+    private RecordCursor rewound;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        String poolName = "bench_" + batchSize;
+        database = new BenchmarkDatabase(poolName, ", " + batchSize + " batch_size");
+        database.create(schema, ROWS);
+        factory = database.compile("select * from jdbc('" + poolName + "', '" + schema.selectAll() + "')")
+                .getRecordCursorFactory();
+        RecordMetadata metadata = factory.getMetadata();
+        columnTypes = new int[metadata.getColumnCount()];
+        for (int col = 0; col < columnTypes.length; col++) {
+            columnTypes[col] = metadata.getColumnType(col);
+        }
+        rewound = factory.getCursor();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        rewound.close();
+        factory.close();
+        database.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long cursor(Blackhole blackhole) {
+        long rows = 0;
+        try (RecordCursor cursor = factory.getCursor()) {
+            Record record = cursor.getRecord();
+            while (cursor.hasNext()) {
+                for (int col = 0; col < columnTypes.length; col++) {
+                    switch (columnTypes[col]) {
+                        case ColumnType.LONG:
+                            blackhole.consume(record.getLong(col));
+                            break;
+                        case ColumnType.DOUBLE:
+                            blackhole.consume(record.getDouble(col));
+                            break;
+                        case ColumnType.INT:
+                            blackhole.consume(record.getInt(col));
+                            break;
+                        default:
+                            blackhole.consume(record.getStr(col));
+                            break;
+                    }
+                }
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long rawJdbc(Blackhole blackhole) throws Exception {
+        long rows = 0;
+        try (Connection connection = ConnectionFunctionFactory.getDataSource("bench_" + batchSize).getConnection();
+             PreparedStatement statement = connection.prepareStatement(schema.selectAll());
+             ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                for (int col = 0; col < columnTypes.length; col++) {
+                    switch (columnTypes[col]) {
+                        case ColumnType.LONG:
+                            blackhole.consume(resultSet.getLong(col + 1));
+                            blackhole.consume(resultSet.wasNull());
+                            break;
+                        case ColumnType.DOUBLE:
+                            blackhole.consume(resultSet.getDouble(col + 1));
+                            blackhole.consume(resultSet.wasNull());
+                            break;
+                        case ColumnType.INT:
+                            blackhole.consume(resultSet.getInt(col + 1));
+                            blackhole.consume(resultSet.wasNull());
+                            break;
+                        default:
+                            blackhole.consume(resultSet.getString(col + 1));
+                            break;
+                    }
+                }
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public boolean toTop() {
+        rewound.toTop();
+        return rewound.hasNext();
+    }
+}
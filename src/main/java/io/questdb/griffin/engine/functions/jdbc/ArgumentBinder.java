@@ -0,0 +1,138 @@
+package io.questdb.griffin.engine.functions.jdbc;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.Function;
+import io.questdb.griffin.SqlException;
+import io.questdb.std.Numbers;
+import io.questdb.std.ObjList;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.ZoneId;
+
+/**
+ * Binds QuestDB function arguments as parameters of the remote statement. Arguments are evaluated on each
+ * execution, so bind variables pick up their current values.
+ */
+class ArgumentBinder implements StatementHolder.Binder {
+    private final ObjList<Function> args;
+    private final int lo;
+    private final TemporalCodec codec;
+
+    private ArgumentBinder(ObjList<Function> args, int lo, ZoneId timeZone) {
+        this.args = args;
+        this.lo = lo;
+        this.codec = new TemporalCodec(timeZone);
+    }
+
+    /**
+     * @param timeZone zone DATE and TIMESTAMP arguments are bound in, see {@link TemporalCodec}
+     * @return binder for arguments starting from {@code lo} or null when there are none
+     */
+    static ArgumentBinder of(ObjList<Function> args, int lo, ZoneId timeZone) throws SqlException {
+        if (args.size() <= lo) {
+            return null;
+        }
+        for (int i = lo, n = args.size(); i < n; i++) {
+            Function arg = args.getQuick(i);
+            if (arg.getType() == ColumnType.BINARY || arg.getType() == ColumnType.LONG256) {
+                throw SqlException.$(arg.getPosition(), "unsupported JDBC parameter type ").put(ColumnType.nameOf(arg.getType()));
+            }
+        }
+        return new ArgumentBinder(args, lo, timeZone);
+    }
+
+    static Timestamp toTimestamp(long micros) {
+        Timestamp timestamp = new Timestamp(Math.floorDiv(micros, 1000L));
+        timestamp.setNanos((int) Math.floorMod(micros, 1000_000L) * 1000);
+        return timestamp;
+    }
+
+    @Override
+    public void bind(PreparedStatement statement) throws SQLException {
+        for (int i = lo, n = args.size(); i < n; i++) {
+            bind(statement, i - lo + 1, args.getQuick(i));
+        }
+    }
+
+    private void bind(PreparedStatement statement, int parameterIndex, Function arg) throws SQLException {
+        switch (arg.getType()) {
+            case ColumnType.BOOLEAN:
+                statement.setBoolean(parameterIndex, arg.getBool(null));
+                break;
+            case ColumnType.BYTE:
+                statement.setByte(parameterIndex, arg.getByte(null));
+                break;
+            case ColumnType.SHORT:
+                statement.setShort(parameterIndex, arg.getShort(null));
+                break;
+            case ColumnType.CHAR:
+                statement.setString(parameterIndex, String.valueOf(arg.getChar(null)));
+                break;
+            case ColumnType.INT:
+                int intValue = arg.getInt(null);
+                if (intValue == Numbers.INT_NaN) {
+                    statement.setNull(parameterIndex, Types.INTEGER);
+                } else {
+                    statement.setInt(parameterIndex, intValue);
+                }
+                break;
+            case ColumnType.LONG:
+                long longValue = arg.getLong(null);
+                if (longValue == Numbers.LONG_NaN) {
+                    statement.setNull(parameterIndex, Types.BIGINT);
+                } else {
+                    statement.setLong(parameterIndex, longValue);
+                }
+                break;
+            case ColumnType.FLOAT:
+                float floatValue = arg.getFloat(null);
+                if (Float.isNaN(floatValue)) {
+                    statement.setNull(parameterIndex, Types.REAL);
+                } else {
+                    statement.setFloat(parameterIndex, floatValue);
+                }
+                break;
+            case ColumnType.DOUBLE:
+                double doubleValue = arg.getDouble(null);
+                if (Double.isNaN(doubleValue)) {
+                    statement.setNull(parameterIndex, Types.DOUBLE);
+                } else {
+                    statement.setDouble(parameterIndex, doubleValue);
+                }
+                break;
+            case ColumnType.DATE:
+                long millis = arg.getDate(null);
+                if (millis == Numbers.LONG_NaN) {
+                    statement.setNull(parameterIndex, Types.TIMESTAMP);
+                } else {
+                    codec.setMillis(statement, parameterIndex, millis);
+                }
+                break;
+            case ColumnType.TIMESTAMP:
+                long micros = arg.getTimestamp(null);
+                if (micros == Numbers.LONG_NaN) {
+                    statement.setNull(parameterIndex, Types.TIMESTAMP);
+                } else {
+                    codec.setMicros(statement, parameterIndex, micros);
+                }
+                break;
+            case ColumnType.SYMBOL:
+                setString(statement, parameterIndex, arg.getSymbol(null));
+                break;
+            default:
+                setString(statement, parameterIndex, arg.getStr(null));
+                break;
+        }
+    }
+
+    private static void setString(PreparedStatement statement, int parameterIndex, CharSequence value) throws SQLException {
+        if (value == null) {
+            statement.setNull(parameterIndex, Types.VARCHAR);
+        } else {
+            statement.setString(parameterIndex, value.toString());
+        }
+    }
+}
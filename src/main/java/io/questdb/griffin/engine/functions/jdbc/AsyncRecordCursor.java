@@ -0,0 +1,317 @@
+package io.questdb.griffin.engine.functions.jdbc;
+
+import io.questdb.cairo.sql.NoRandomAccessRecordCursor;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.ObjList;
+import lombok.SneakyThrows;
+
+import java.sql.SQLTimeoutException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cursor over one or more remote queries that are read concurrently by background threads. Every reader
+ * fills at most {@code depth} batches ahead of the one being consumed, rows are returned in the order batches arrive.
+ * <p>
+ * Query that spends more than {@code timeoutMillis} executing and fetching is cancelled. Time a reader waits for
+ * the consumer to take its batches doesn't count, so a slow consumer doesn't cancel healthy queries. Failed and
+ * cancelled queries fail the cursor, unless {@code partial} is set, then their remaining rows are skipped
+ * and rows they already returned are kept.
+ */
+class AsyncRecordCursor implements NoRandomAccessRecordCursor {
+    private static final Log LOG = LogFactory.getLog(AsyncRecordCursor.class);
+    private final BlockingQueue<Slot> ready = new LinkedBlockingQueue<>();
+    private final Reader[] readers;
+    private final BatchRecord record;
+    private final SymbolDictionary[] symbols;
+    private final long timeoutMillis;
+    private final boolean partial;
+    private Slot current;
+    private int row;
+    private int running;
+
+    AsyncRecordCursor(ObjList<StatementHolder> statementHolders, RecordMetadata metadata, int batchSize, int depth) {
+        this(statementHolders, metadata, batchSize, depth, 0, false);
+    }
+
+    /**
+     * @param timeoutMillis time every query may spend executing and fetching its rows, 0 means no limit
+     * @param partial       skips queries that failed or timed out instead of failing the cursor
+     */
+    AsyncRecordCursor(ObjList<StatementHolder> statementHolders, RecordMetadata metadata, int batchSize, int depth,
+                      long timeoutMillis, boolean partial) {
+        this.timeoutMillis = timeoutMillis;
+        this.partial = partial;
+        this.record = new BatchRecord(metadata);
+        this.symbols = SymbolDictionary.of(metadata);
+        this.readers = new Reader[statementHolders.size()];
+        for (int i = 0; i < readers.length; i++) {
+            readers[i] = new Reader(statementHolders.getQuick(i), metadata, symbols, batchSize, depth, ready);
+        }
+    }
+
+    @Override
+    @SneakyThrows
+    public void close() {
+        stop();
+        for (Reader reader : readers) {
+            // reader that didn't reach the end of its result may still hold a connection
+            reader.statementHolder.close();
+        }
+    }
+
+    @Override
+    public Record getRecord() {
+        return record;
+    }
+
+    @Override
+    @SneakyThrows
+    public boolean hasNext() {
+        if (current != null) {
+            if (++row < current.batch.size()) {
+                record.setRow(row);
+                return true;
+            }
+            current.reader.recycle(current);
+            current = null;
+        }
+        while (running > 0) {
+            Slot slot = timeoutMillis > 0 ? poll() : ready.take();
+            if (slot == null) {
+                continue;
+            }
+            if (slot.batch == null) {
+                running--;
+                slot.reader.running = false;
+                Throwable error = slot.reader.getFailure(timeoutMillis);
+                if (error != null) {
+                    if (!partial) {
+                        throw error;
+                    }
+                    LOG.error().$("skipped failed query [pool=").$(slot.reader.statementHolder.getStats().getPoolName())
+                            .$(", error=").$(error).$("]").$();
+                }
+                continue;
+            }
+            current = slot;
+            row = 0;
+            record.of(slot.batch);
+            record.setRow(0);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public SymbolTable getSymbolTable(int columnIndex) {
+        return symbols[columnIndex];
+    }
+
+    @Override
+    public void toTop() {
+        stop();
+        // readers are stopped, nothing interns into the dictionaries
+        SymbolDictionary.clear(symbols);
+        for (Reader reader : readers) {
+            reader.start();
+        }
+        running = readers.length;
+    }
+
+    /**
+     * Cancels queries that used up their time and waits for the next batch at most until the next query could
+     * run out of it. Cancelled queries end as usual, so the wait goes on without limit once all are cancelled.
+     */
+    private Slot poll() throws InterruptedException {
+        final long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        final long now = System.nanoTime();
+        long wait = Long.MAX_VALUE;
+        for (Reader reader : readers) {
+            if (reader.running && !reader.timedOut) {
+                long left = timeoutNanos - reader.remoteNanos(now);
+                if (left > 0) {
+                    wait = Math.min(wait, left);
+                } else {
+                    reader.timedOut = true;
+                    reader.cancel();
+                }
+            }
+        }
+        return wait == Long.MAX_VALUE ? ready.take() : ready.poll(wait, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public long size() {
+        return -1;
+    }
+
+    @SneakyThrows
+    private void stop() {
+        if (current != null) {
+            current.reader.recycle(current);
+            current = null;
+        }
+        if (running == 0) {
+            return;
+        }
+        for (Reader reader : readers) {
+            reader.cancel();
+        }
+        while (running > 0) {
+            Slot slot = ready.take();
+            if (slot.batch == null) {
+                running--;
+            } else {
+                slot.reader.recycle(slot);
+            }
+        }
+    }
+
+    private static class Slot {
+        private final RecordBatch batch;
+        private final Reader reader;
+
+        private Slot(RecordBatch batch, Reader reader) {
+            this.batch = batch;
+            this.reader = reader;
+        }
+    }
+
+    private static class Reader implements Runnable {
+        private final StatementHolder statementHolder;
+        private final BlockingQueue<Slot> free;
+        private final BlockingQueue<Slot> ready;
+        private final Slot end = new Slot(null, this);
+        private volatile boolean cancelled;
+        private volatile boolean completed;
+        private volatile Throwable error;
+        /**
+         * Time spent in finished execute and fetch calls, and start of the call in progress, 0 when the reader
+         * waits for a free batch. Written by the reader thread only.
+         */
+        private volatile long remoteNanos;
+        private volatile long remoteSince;
+        // owned by the consumer thread
+        private boolean running;
+        private boolean timedOut;
+
+        private Reader(StatementHolder statementHolder, RecordMetadata metadata, SymbolDictionary[] symbols,
+                       int batchSize, int depth, BlockingQueue<Slot> ready) {
+            this.statementHolder = statementHolder;
+            this.ready = ready;
+            // one more batch than depth is the one consumer reads from
+            this.free = new ArrayBlockingQueue<>(depth + 1);
+            for (int i = 0; i <= depth; i++) {
+                free.add(new Slot(new RecordBatch(metadata, batchSize, symbols, statementHolder.getTimeZone()), this));
+            }
+        }
+
+        void start() {
+            cancelled = false;
+            completed = false;
+            error = null;
+            remoteNanos = 0;
+            remoteSince = 0;
+            running = true;
+            timedOut = false;
+            JdbcExecutors.READERS.execute(this);
+        }
+
+        void cancel() {
+            cancelled = true;
+            statementHolder.cancel();
+        }
+
+        void recycle(Slot slot) {
+            free.add(slot);
+        }
+
+        /**
+         * @return time the query spent executing and fetching so far
+         */
+        long remoteNanos(long now) {
+            // read in the opposite order the reader writes, a call that just ended can't be counted twice
+            long nanos = remoteNanos;
+            long since = remoteSince;
+            return since != 0 ? nanos + now - since : nanos;
+        }
+
+        /**
+         * @return error the reader ended with, null when it returned all rows
+         */
+        Throwable getFailure(long timeoutMillis) {
+            if (timedOut && !completed) {
+                return new SQLTimeoutException("query of pool " + statementHolder.getStats().getPoolName()
+                        + " didn't finish within " + timeoutMillis + " ms");
+            }
+            return error;
+        }
+
+        @Override
+        public void run() {
+            try {
+                remoteStarted();
+                statementHolder.createUnlimitedResultSet();
+                remoteEnded();
+                boolean moreRows = true;
+                while (moreRows) {
+                    Slot slot = takeFree();
+                    if (slot == null) {
+                        break;
+                    }
+                    remoteStarted();
+                    moreRows = statementHolder.fill(slot.batch);
+                    remoteEnded();
+                    if (slot.batch.size() > 0) {
+                        ready.add(slot);
+                    } else {
+                        free.add(slot);
+                    }
+                }
+                completed = !moreRows;
+            } catch (Throwable e) {
+                if (!cancelled) {
+                    error = e;
+                }
+            } finally {
+                // failed call isn't in progress anymore, the reader can't time out after it ended
+                remoteSince = 0;
+                try {
+                    statementHolder.close();
+                } catch (Throwable e) {
+                    if (error == null && !cancelled) {
+                        error = e;
+                    }
+                }
+                ready.add(end);
+            }
+        }
+
+        private void remoteStarted() {
+            remoteSince = System.nanoTime();
+        }
+
+        private void remoteEnded() {
+            long since = remoteSince;
+            remoteSince = 0;
+            remoteNanos += System.nanoTime() - since;
+        }
+
+        private Slot takeFree() throws InterruptedException {
+            while (!cancelled) {
+                Slot slot = free.poll(100, TimeUnit.MILLISECONDS);
+                if (slot != null) {
+                    return slot;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package io.questdb.griffin.engine.functions.jdbc;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.std.BinarySequence;
+
+/**
+ * Flyweight over one row of a {@link RecordBatch}, getters never call into the JDBC driver. Every getter casts
+ * the column to the vector its type is read into, see {@link RecordBatch.ColumnVector}.
+ */
+class BatchRecord implements Record {
+    private final RecordBatch.StrView[] strViewsA;
+    private final RecordBatch.StrView[] strViewsB;
+    private final RecordBatch.BinView[] binViews;
+    private RecordBatch batch;
+    private int batchIndex;
+    private int row;
+
+    BatchRecord(RecordMetadata metadata) {
+        int columnCount = metadata.getColumnCount();
+        this.strViewsA = new RecordBatch.StrView[columnCount];
+        this.strViewsB = new RecordBatch.StrView[columnCount];
+        this.binViews = new RecordBatch.BinView[columnCount];
+        for (int col = 0; col < columnCount; col++) {
+            if (metadata.getColumnType(col) == ColumnType.STRING) {
+                strViewsA[col] = new RecordBatch.StrView();
+                strViewsB[col] = new RecordBatch.StrView();
+            } else if (metadata.getColumnType(col) == ColumnType.BINARY) {
+                binViews[col] = new RecordBatch.BinView();
+            }
+        }
+    }
+
+    void of(RecordBatch batch) {
+        of(batch, 0);
+    }
+
+    /**
+     * @param batchIndex position of the batch in its {@link RecordSpool}, used to compose row id
+     */
+    void of(RecordBatch batch, int batchIndex) {
+        this.batch = batch;
+        this.batchIndex = batchIndex;
+    }
+
+    void setRow(int row) {
+        this.row = row;
+    }
+
+    @Override
+    public BinarySequence getBin(int col) {
+        return ((RecordBatch.BinVector) batch.column(col)).getBin(row, binViews[col]);
+    }
+
+    @Override
+    public long getBinLen(int col) {
+        return ((RecordBatch.BinVector) batch.column(col)).getBinLen(row);
+    }
+
+    @Override
+    public boolean getBool(int col) {
+        return ((RecordBatch.BoolVector) batch.column(col)).getBool(row);
+    }
+
+    @Override
+    public byte getByte(int col) {
+        return ((RecordBatch.ByteVector) batch.column(col)).getByte(row);
+    }
+
+    @Override
+    public char getChar(int col) {
+        return ((RecordBatch.CharVector) batch.column(col)).getChar(row);
+    }
+
+    @Override
+    public long getDate(int col) {
+        return ((RecordBatch.LongVector) batch.column(col)).getLong(row);
+    }
+
+    @Override
+    public double getDouble(int col) {
+        return ((RecordBatch.DoubleVector) batch.column(col)).getDouble(row);
+    }
+
+    @Override
+    public float getFloat(int col) {
+        return ((RecordBatch.FloatVector) batch.column(col)).getFloat(row);
+    }
+
+    @Override
+    public int getInt(int col) {
+        return ((RecordBatch.IntValues) batch.column(col)).getInt(row);
+    }
+
+    @Override
+    public long getLong(int col) {
+        return ((RecordBatch.LongVector) batch.column(col)).getLong(row);
+    }
+
+    @Override
+    public long getRowId() {
+        return RecordSpool.rowId(batchIndex, row);
+    }
+
+    @Override
+    public short getShort(int col) {
+        return ((RecordBatch.ShortVector) batch.column(col)).getShort(row);
+    }
+
+    @Override
+    public CharSequence getStr(int col) {
+        return ((RecordBatch.StrValues) batch.column(col)).getStr(row, strViewsA[col]);
+    }
+
+    @Override
+    public CharSequence getStrB(int col) {
+        return ((RecordBatch.StrValues) batch.column(col)).getStr(row, strViewsB[col]);
+    }
+
+    @Override
+    public int getStrLen(int col) {
+        return ((RecordBatch.StrValues) batch.column(col)).getStrLen(row);
+    }
+
+    @Override
+    public CharSequence getSym(int col) {
+        return ((RecordBatch.SymKeyVector) batch.column(col)).getSym(row);
+    }
+
+    @Override
+    public long getTimestamp(int col) {
+        return ((RecordBatch.LongVector) batch.column(col)).getLong(row);
+    }
+}
@@ -15,11 +15,17 @@ import io.questdb.plugin.GlobalComponent;
 import io.questdb.std.ObjList;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.util.DriverDataSource;
 
 import javax.sql.DataSource;
 import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.ZoneId;
+import java.util.Collection;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 public class ConnectionFunctionFactory implements FunctionFactory, GlobalComponent {
     private static final String COLUMN_NAME = "name";
@@ -33,7 +39,7 @@ public class ConnectionFunctionFactory implements FunctionFactory, GlobalCompone
     private static final String COLUMN_READ_ONLY = "read_only";
     private static final String COLUMN_JMX = "jmx";
     private static final String COLUMN_MAX_POOL_SIZE = "max_pool_size";
-    private static final Map<String, HikariDataSource> DBCP = new ConcurrentHashMap<>();
+    private static final Map<String, JdbcPool> DBCP = new ConcurrentHashMap<>();
     private static final String TRANSACTION_ISOLATION = "transaction_isolation";
     private static final String IDLE_TIMEOUT = "idle_timeout";
     private static final String INITIALIZATION_FAIL_TIMEOUT = "initialization_fail_timeout";
@@ -41,11 +47,33 @@ public class ConnectionFunctionFactory implements FunctionFactory, GlobalCompone
     private static final String MAX_LIFETIME = "max_lifetime";
     private static final String MINIMUM_IDLE = "minimum_idle";
     private static final String VALIDATION_TIMEOUT = "validation_timeout";
+    private static final String BATCH_SIZE = "batch_size";
+    private static final String METADATA_TTL = "metadata_ttl";
+    private static final String PREFETCH_DEPTH = "prefetch_depth";
+    private static final String FETCH_SIZE = "fetch_size";
+    private static final String STREAMING = "streaming";
+    private static final String QUERY_TIMEOUT = "query_timeout";
+    private static final String MAX_ROWS = "max_rows";
+    private static final String STATEMENT_CACHE_SIZE = "statement_cache_size";
+    private static final String RESULT_CACHE_TTL = "result_cache_ttl";
+    private static final String MATERIALIZE = "materialize";
+    private static final String SPOOL_MEMORY_LIMIT = "spool_memory_limit";
+    private static final String SYMBOL_COLUMNS = "symbol_columns";
+    private static final String SYMBOL_SAMPLE_ROWS = "symbol_sample_rows";
+    private static final String TIMEZONE = "timezone";
+    private static final String LOOKUP_CACHE_SIZE = "lookup_cache_size";
+    private static final String LOOKUP_CACHE_TTL = "lookup_cache_ttl";
+    private static final String EXPORT_BATCH_SIZE = "export_batch_size";
+    private static final String EXPORT_COMMIT_SIZE = "export_commit_size";
+    private static final String EXPORT_MULTI_ROW = "export_multi_row";
+    private static final String EXPORT_WRITERS = "export_writers";
 
     static {
-        Runtime.getRuntime().addShutdownHook(new Thread(() -> DBCP.values().forEach(HikariDataSource::close)));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> DBCP.values().forEach(JdbcPool::close)));
     }
 
+    private static volatile CairoEngine engine;
+
     private SqlCompiler sqlCompiler;
 
     @Override
@@ -76,6 +104,26 @@ public class ConnectionFunctionFactory implements FunctionFactory, GlobalCompone
         int maxLifetimeIdx = getColumnIndex(metadata, MAX_LIFETIME, ColumnType.LONG, false);
         int minimumIdleIdx = getColumnIndex(metadata, MINIMUM_IDLE, ColumnType.INT, false);
         int validationTimeoutIdx = getColumnIndex(metadata, VALIDATION_TIMEOUT, ColumnType.LONG, false);
+        int batchSizeIdx = getColumnIndex(metadata, BATCH_SIZE, ColumnType.INT, false);
+        int metadataTtlIdx = getColumnIndex(metadata, METADATA_TTL, ColumnType.LONG, false);
+        int prefetchDepthIdx = getColumnIndex(metadata, PREFETCH_DEPTH, ColumnType.INT, false);
+        int fetchSizeIdx = getColumnIndex(metadata, FETCH_SIZE, ColumnType.INT, false);
+        int streamingIdx = getColumnIndex(metadata, STREAMING, ColumnType.BOOLEAN, false);
+        int queryTimeoutIdx = getColumnIndex(metadata, QUERY_TIMEOUT, ColumnType.INT, false);
+        int maxRowsIdx = getColumnIndex(metadata, MAX_ROWS, ColumnType.LONG, false);
+        int statementCacheSizeIdx = getColumnIndex(metadata, STATEMENT_CACHE_SIZE, ColumnType.INT, false);
+        int resultCacheTtlIdx = getColumnIndex(metadata, RESULT_CACHE_TTL, ColumnType.LONG, false);
+        int materializeIdx = getColumnIndex(metadata, MATERIALIZE, ColumnType.BOOLEAN, false);
+        int spoolMemoryLimitIdx = getColumnIndex(metadata, SPOOL_MEMORY_LIMIT, ColumnType.LONG, false);
+        int symbolColumnsIdx = getColumnIndex(metadata, SYMBOL_COLUMNS, ColumnType.STRING, false);
+        int symbolSampleRowsIdx = getColumnIndex(metadata, SYMBOL_SAMPLE_ROWS, ColumnType.INT, false);
+        int timezoneIdx = getColumnIndex(metadata, TIMEZONE, ColumnType.STRING, false);
+        int lookupCacheSizeIdx = getColumnIndex(metadata, LOOKUP_CACHE_SIZE, ColumnType.INT, false);
+        int lookupCacheTtlIdx = getColumnIndex(metadata, LOOKUP_CACHE_TTL, ColumnType.LONG, false);
+        int exportBatchSizeIdx = getColumnIndex(metadata, EXPORT_BATCH_SIZE, ColumnType.INT, false);
+        int exportCommitSizeIdx = getColumnIndex(metadata, EXPORT_COMMIT_SIZE, ColumnType.LONG, false);
+        int exportMultiRowIdx = getColumnIndex(metadata, EXPORT_MULTI_ROW, ColumnType.BOOLEAN, false);
+        int exportWritersIdx = getColumnIndex(metadata, EXPORT_WRITERS, ColumnType.INT, false);
 
         RecordCursor recordCursor = settings.getRecordCursorFactory().getCursor(null);
         while (recordCursor.hasNext()){
@@ -130,12 +178,113 @@ public class ConnectionFunctionFactory implements FunctionFactory, GlobalCompone
             if(validationTimeoutIdx!=-1){
                 configuration.setValidationTimeout(record.getLong(validationTimeoutIdx));
             }
-            DBCP.computeIfAbsent(poolName, s -> new HikariDataSource(configuration));
+            int batchSize = batchSizeIdx != -1 ? record.getInt(batchSizeIdx) : 0;
+            long metadataTtl = metadataTtlIdx != -1 ? record.getLong(metadataTtlIdx) : 0L;
+            int prefetchDepth = prefetchDepthIdx != -1 ? record.getInt(prefetchDepthIdx) : 0;
+            int fetchSize = fetchSizeIdx != -1 ? record.getInt(fetchSizeIdx) : 0;
+            boolean streaming = streamingIdx != -1 && record.getBool(streamingIdx);
+            int queryTimeout = queryTimeoutIdx != -1 ? record.getInt(queryTimeoutIdx) : 0;
+            long maxRows = maxRowsIdx != -1 ? record.getLong(maxRowsIdx) : 0L;
+            int statementCacheSize = statementCacheSizeIdx != -1 ? record.getInt(statementCacheSizeIdx) : 0;
+            long resultCacheTtl = resultCacheTtlIdx != -1 ? record.getLong(resultCacheTtlIdx) : 0L;
+            boolean materialize = materializeIdx != -1 && record.getBool(materializeIdx);
+            long spoolMemoryLimit = spoolMemoryLimitIdx != -1 ? record.getLong(spoolMemoryLimitIdx) : 0L;
+            String symbolColumns = symbolColumnsIdx != -1 ? valueOf(record.getStr(symbolColumnsIdx)) : null;
+            int symbolSampleRows = symbolSampleRowsIdx != -1 ? record.getInt(symbolSampleRowsIdx) : 0;
+            ZoneId timeZone = timezoneIdx != -1 ? getTimeZone(record.getStr(timezoneIdx), position) : ZoneId.systemDefault();
+            int lookupCacheSize = lookupCacheSizeIdx != -1 ? record.getInt(lookupCacheSizeIdx) : 0;
+            long lookupCacheTtl = lookupCacheTtlIdx != -1 ? record.getLong(lookupCacheTtlIdx) : 0L;
+            int exportBatchSize = exportBatchSizeIdx != -1 ? record.getInt(exportBatchSizeIdx) : 0;
+            long exportCommitSize = exportCommitSizeIdx != -1 ? record.getLong(exportCommitSizeIdx) : 0L;
+            boolean exportMultiRow = exportMultiRowIdx != -1 && record.getBool(exportMultiRowIdx);
+            int exportWriters = exportWritersIdx != -1 ? record.getInt(exportWritersIdx) : 0;
+            if (DBCP.get(poolName) instanceof PoolGroup) {
+                throw SqlException.$(position, "pool group ").put(poolName).put(" can't be re-initialized as a pool");
+            }
+            register(poolName, configuration, pool -> {
+                pool.setBatchSize(batchSize);
+                pool.setMetadataTtl(metadataTtl);
+                pool.setPrefetchDepth(prefetchDepth);
+                pool.setFetchSize(fetchSize);
+                pool.setStreaming(streaming);
+                pool.setQueryTimeout(queryTimeout);
+                pool.setMaxRows(maxRows);
+                pool.setStatementCacheSize(statementCacheSize);
+                pool.setResultCacheTtl(resultCacheTtl);
+                pool.setMaterialize(materialize);
+                pool.setSpoolMemoryLimit(spoolMemoryLimit);
+                pool.setSymbolColumns(symbolColumns);
+                pool.setSymbolSampleRows(symbolSampleRows);
+                pool.setTimeZone(timeZone);
+                pool.setLookupCacheSize(lookupCacheSize);
+                pool.setLookupCacheTtl(lookupCacheTtl);
+                pool.setExportBatchSize(exportBatchSize);
+                pool.setExportCommitSize(exportCommitSize);
+                pool.setExportMultiRow(exportMultiRow);
+                pool.setExportWriters(exportWriters);
+            });
+            // column types of cached metadata depend on the symbol settings, cached results on the data source
+            MetadataCache.INSTANCE.invalidate(poolName);
+            ResultCache.INSTANCE.invalidate(poolName);
         }
 
         return new NullStrConstant(position);
     }
 
+    /**
+     * Registers the pool or updates the registered one, repeated init keeps the pool object, so already compiled
+     * queries follow the new settings. A new data source is started before the pool is locked, connecting may take
+     * up to {@code connection_timeout}, and is discarded when the pool was changed by someone else meanwhile.
+     */
+    private static void register(String poolName, HikariConfig configuration, Consumer<JdbcPool> settings) {
+        final String connectionKey = JdbcPool.connectionKey(configuration);
+        final AtomicBoolean registered = new AtomicBoolean();
+        while (!registered.get()) {
+            final JdbcPool current = DBCP.get(poolName);
+            final HikariDataSource dataSource = current == null || !connectionKey.equals(current.getConnectionKey())
+                    ? newDataSource(configuration) : null;
+            DBCP.compute(poolName, (s, pool) -> {
+                if (pool != current) {
+                    return pool;
+                }
+                if (pool == null) {
+                    pool = new JdbcPool(poolName, dataSource, connectionKey);
+                } else if (dataSource != null) {
+                    pool.swap(dataSource, connectionKey);
+                } else {
+                    pool.reconfigure(configuration);
+                }
+                settings.accept(pool);
+                registered.set(true);
+                return pool;
+            });
+            if (!registered.get() && dataSource != null) {
+                dataSource.close();
+            }
+        }
+    }
+
+    /**
+     * @return started data source, its physical connections cache prepared statements, see {@link StatementCache}
+     */
+    private static HikariDataSource newDataSource(HikariConfig configuration) {
+        configuration.setDataSource(StatementCache.dataSource(new DriverDataSource(configuration.getJdbcUrl(),
+                configuration.getDriverClassName(), configuration.getDataSourceProperties(),
+                configuration.getUsername(), configuration.getPassword())));
+        return new HikariDataSource(configuration);
+    }
+
+    private static ZoneId getTimeZone(CharSequence timeZone, int position) throws SqlException {
+        if (timeZone == null) {
+            return ZoneId.systemDefault();
+        }
+        try {
+            return ZoneId.of(timeZone.toString());
+        } catch (DateTimeException e) {
+            throw SqlException.$(position, "invalid timezone: ").put(timeZone);
+        }
+    }
+
     private int getColumnIndex(RecordMetadata metadata, String columnName, int expectedColumnType, boolean requered) throws SqlException {
         int columnIndex = metadata.getColumnIndexQuiet(columnName);
         if(requered && columnIndex==-1){
@@ -147,12 +296,66 @@ public class ConnectionFunctionFactory implements FunctionFactory, GlobalCompone
         return columnIndex;
     }
 
-    static DataSource getDataSource(String dataSourceName) throws SqlException{
-        HikariDataSource dataSource = DBCP.get(dataSourceName);
-        if (dataSource == null) {
-            throw SqlException.$(1,"DataSource ").put(dataSourceName).put(" not found");
+    static DataSource getDataSource(String dataSourceName, int position) throws SqlException{
+        return getPool(dataSourceName, position).getDataSource();
+    }
+
+    static Collection<JdbcPool> getPools() {
+        return DBCP.values();
+    }
+
+    /**
+     * @return registered pool or group, null when there is none of the name
+     */
+    static JdbcPool findPool(String dataSourceName) {
+        return DBCP.get(dataSourceName);
+    }
+
+    /**
+     * Registers the group or replaces a group of the same name.
+     */
+    static void putGroup(PoolGroup group) {
+        JdbcPool replaced = DBCP.put(group.getName(), group);
+        if (replaced != null) {
+            replaced.close();
+        }
+        MetadataCache.INSTANCE.invalidate(group.getName());
+        ResultCache.INSTANCE.invalidate(group.getName());
+    }
+
+    /**
+     * Unregisters the pool, its data source is closed once borrowed connections are returned.
+     */
+    static void closePool(String dataSourceName, int position) throws SqlException {
+        JdbcPool pool = DBCP.remove(dataSourceName);
+        if (pool == null) {
+            throw SqlException.$(position, "DataSource ").put(dataSourceName).put(" not found");
+        }
+        pool.drain();
+        MetadataCache.INSTANCE.invalidate(dataSourceName);
+        ResultCache.INSTANCE.invalidate(dataSourceName);
+    }
+
+    /**
+     * @param position position of the pool name argument, reported when there is no such pool
+     */
+    static JdbcPool getPool(String dataSourceName, int position) throws SqlException{
+        JdbcPool pool = DBCP.get(dataSourceName);
+        if (pool == null) {
+            throw SqlException.$(position, "DataSource ").put(dataSourceName).put(" not found");
+        }
+        return pool;
+    }
+
+    /**
+     * @return engine the plugin was initialized with, functions writing into QuestDB tables need it
+     */
+    static CairoEngine getEngine() throws SqlException {
+        CairoEngine engine = ConnectionFunctionFactory.engine;
+        if (engine == null) {
+            throw SqlException.$(1, "JDBC plugin is not initialized");
         }
-        return dataSource;
+        return engine;
     }
 
     private static String valueOf(Object value) {
@@ -163,10 +366,14 @@ public class ConnectionFunctionFactory implements FunctionFactory, GlobalCompone
     @Override
     public void init(CairoEngine cairoEngine) {
         sqlCompiler = new SqlCompiler(cairoEngine);
+        engine = cairoEngine;
+        PoolConfig.load(cairoEngine);
     }
 
     @Override
     public void close() throws IOException {
+        SyncScheduler.INSTANCE.close();
+        engine = null;
         sqlCompiler.close();
     }
 }
@@ -0,0 +1,78 @@
+package io.questdb.griffin.engine.functions.jdbc;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+
+/**
+ * Quotes table and column names put into generated remote SQL. Plain names are first converted to the case
+ * the remote database stores unquoted names in, so quoting doesn't change which table or column they match,
+ * other names are quoted as they are.
+ */
+final class Identifiers {
+    private final String quote;
+    private final boolean upperCase;
+    private final boolean lowerCase;
+
+    private Identifiers(String quote, boolean upperCase, boolean lowerCase) {
+        this.quote = quote;
+        this.upperCase = upperCase;
+        this.lowerCase = lowerCase;
+    }
+
+    static Identifiers of(Connection connection) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        String quote = metaData.getIdentifierQuoteString();
+        // a space means the driver doesn't support quoting
+        return new Identifiers(quote == null || quote.trim().isEmpty() ? null : quote.trim(),
+                metaData.storesUpperCaseIdentifiers(), metaData.storesLowerCaseIdentifiers());
+    }
+
+    String quote(CharSequence identifier) {
+        String name = identifier.toString();
+        if (quote == null) {
+            return name;
+        }
+        if (isPlain(name)) {
+            if (upperCase) {
+                name = name.toUpperCase();
+            } else if (lowerCase) {
+                name = name.toLowerCase();
+            }
+        }
+        return quoteExact(name);
+    }
+
+    /**
+     * @return name quoted without case conversion, for names reported by the remote database itself
+     */
+    String quoteExact(CharSequence identifier) {
+        String name = identifier.toString();
+        return quote != null ? quote + name.replace(quote, quote + quote) + quote : name;
+    }
+
+    /**
+     * @return name with optional schema or catalog prefixes, every part quoted on its own
+     */
+    String quoteQualified(String name) {
+        String[] parts = name.split("\\.", -1);
+        StringBuilder quoted = new StringBuilder(quote(parts[0]));
+        for (int i = 1; i < parts.length; i++) {
+            quoted.append('.').append(quote(parts[i]));
+        }
+        return quoted.toString();
+    }
+
+    private static boolean isPlain(String name) {
+        if (name.isEmpty() || !Character.isLetter(name.charAt(0))) {
+            return false;
+        }
+        for (int i = 1, n = name.length(); i < n; i++) {
+            char c = name.charAt(i);
+            if (!Character.isLetterOrDigit(c) && c != '_') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
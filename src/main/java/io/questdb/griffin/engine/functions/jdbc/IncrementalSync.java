@@ -0,0 +1,129 @@
+package io.questdb.griffin.engine.functions.jdbc;
+
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.GenericRecordMetadata;
+import io.questdb.cairo.TableWriter;
+import io.questdb.griffin.SqlException;
+import io.questdb.std.Numbers;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Copies rows of a remote query into a QuestDB table in increments. Every run fetches only rows with the
+ * tracked column greater than the high-water mark of the previous run and stores the new mark in
+ * {@link WatermarkStore} once the rows are committed. The column has to grow monotonically, e.g. id or updated_at.
+ * <p>
+ * If the process stops between the commit and the update of the mark, the next run copies the last increment again.
+ */
+class IncrementalSync {
+    private final CairoEngine engine;
+    private final JdbcPool pool;
+    private final String query;
+    private final String column;
+    private final String tableName;
+    private final int columnIndex;
+    private final int columnType;
+    private final TableCopy copy;
+    /**
+     * Binds DATE and TIMESTAMP marks, runs of one sync are serialized by the lock of its target table.
+     */
+    private final TemporalCodec watermarkCodec;
+
+    IncrementalSync(CairoEngine engine, JdbcPool pool, String query, String column, String tableName,
+                    int columnPosition, int tablePosition) throws Exception {
+        this.engine = engine;
+        this.pool = pool;
+        this.query = query;
+        this.column = column;
+        this.tableName = tableName;
+        final GenericRecordMetadata metadata;
+        try (StatementHolder statementHolder = new StatementHolder(pool, query)) {
+            metadata = JdbcFunctionFactory.getMetadata(pool, query, statementHolder);
+        }
+        this.columnIndex = metadata.getColumnIndexQuiet(column);
+        if (columnIndex == -1) {
+            throw SqlException.invalidColumn(columnPosition, column);
+        }
+        this.columnType = metadata.getColumnType(columnIndex);
+        if (columnType != ColumnType.INT && columnType != ColumnType.LONG
+                && columnType != ColumnType.DATE && columnType != ColumnType.TIMESTAMP) {
+            throw SqlException.$(columnPosition, "watermark column must be INT, LONG, DATE or TIMESTAMP but found ")
+                    .put(ColumnType.nameOf(columnType));
+        }
+        try (TableWriter writer = TableCopy.getWriter(engine, tableName, tablePosition)) {
+            TableCopy.mapColumns(metadata, writer.getMetadata(), tablePosition);
+        }
+        this.copy = new TableCopy(engine, pool, metadata, tableName, tablePosition, 0);
+        this.watermarkCodec = columnType == ColumnType.DATE || columnType == ColumnType.TIMESTAMP
+                ? new TemporalCodec(pool.getTimeZone()) : null;
+    }
+
+    String getTableName() {
+        return tableName;
+    }
+
+    TableCopy getCopy() {
+        return copy;
+    }
+
+    /**
+     * Copies rows past the stored high-water mark, runs of the same target table are serialized.
+     *
+     * @return the new high-water mark
+     */
+    long run() throws Exception {
+        WatermarkStore store = WatermarkStore.of(engine);
+        String key = watermarkKey();
+        synchronized (store.lock(tableName)) {
+            final long watermark = store.get(key);
+            final String subQuery = "select * from (" + query + ") q ";
+            final String quotedColumn = pool.getIdentifiers().quote(column);
+            final StatementHolder statementHolder;
+            if (watermark == Numbers.LONG_NaN) {
+                statementHolder = new StatementHolder(pool, subQuery + "order by " + quotedColumn);
+            } else {
+                statementHolder = new StatementHolder(pool,
+                        subQuery + "where " + quotedColumn + " > ? order by " + quotedColumn,
+                        statement -> bind(statement, watermark));
+            }
+            copy.run(statementHolder, columnIndex);
+            if (copy.getMaxValue() != Numbers.LONG_NaN && (watermark == Numbers.LONG_NaN || copy.getMaxValue() > watermark)) {
+                store.put(key, copy.getMaxValue());
+                return copy.getMaxValue();
+            }
+            return watermark;
+        }
+    }
+
+    /**
+     * Marks are tracked per source, so a sync of the table from another pool or query starts from scratch
+     * instead of skipping rows below a mark it didn't set.
+     */
+    private String watermarkKey() throws NoSuchAlgorithmException {
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(query.getBytes(StandardCharsets.UTF_8));
+        StringBuilder key = new StringBuilder(tableName).append('.').append(column).append('@').append(pool.getName()).append('#');
+        for (byte b : digest) {
+            key.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return key.toString();
+    }
+
+    private void bind(PreparedStatement statement, long watermark) throws SQLException {
+        switch (columnType) {
+            case ColumnType.DATE:
+                watermarkCodec.setMillis(statement, 1, watermark);
+                break;
+            case ColumnType.TIMESTAMP:
+                watermarkCodec.setMicros(statement, 1, watermark);
+                break;
+            default:
+                statement.setLong(1, watermark);
+                break;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package io.questdb.griffin.engine.functions.jdbc;
+
+/**
+ * {@code jdbc('pool', 'query', arg1, arg2, ...)} binds extra arguments as parameters of the remote statement,
+ * so filters are evaluated by the remote database.
+ */
+public class JdbcBindFunctionFactory extends JdbcFunctionFactory {
+    @Override
+    public String getSignature() {
+        return "jdbc(SSV)";
+    }
+}
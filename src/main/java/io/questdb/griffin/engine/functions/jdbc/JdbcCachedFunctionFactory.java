@@ -0,0 +1,62 @@
+package io.questdb.griffin.engine.functions.jdbc;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.GenericRecordMetadata;
+import io.questdb.cairo.sql.Function;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.engine.functions.CursorFunction;
+import io.questdb.griffin.engine.functions.GenericRecordCursorFactory;
+import io.questdb.std.ObjList;
+import lombok.SneakyThrows;
+
+/**
+ * {@code jdbc_cached('pool', 'query')} reads the result of the query from {@link ResultCache}. Remote database
+ * is only queried when the result isn't cached yet or expired after {@code result_cache_ttl} of the pool.
+ */
+public class JdbcCachedFunctionFactory implements FunctionFactory {
+    @Override
+    public String getSignature() {
+        return "jdbc_cached(SS)";
+    }
+
+    @Override
+    @SneakyThrows
+    public Function newInstance(ObjList<Function> args, int position, CairoConfiguration configuration) throws SqlException {
+        final CharSequence dataSourceName = args.getQuick(0).getStr(null);
+        final String query = String.valueOf(args.getQuick(1).getStr(null));
+        JdbcPool pool = ConnectionFunctionFactory.getPool(String.valueOf(dataSourceName), args.getQuick(0).getPosition());
+        GenericRecordMetadata metadata = ResultCache.INSTANCE.getMetadata(pool.getName(), query);
+        if (metadata == null) {
+            try (StatementHolder statementHolder = new StatementHolder(pool, query)) {
+                metadata = JdbcFunctionFactory.getMetadata(pool, query, statementHolder);
+            }
+        }
+        return new CursorFunction(
+                position,
+                new GenericRecordCursorFactory(metadata, new CachedRecordCursor(pool, query, metadata), true)
+        );
+    }
+
+    /**
+     * Keeps the version of the result it was opened with until closed, so row ids stay valid across rewinds
+     * even when the cache entry is reloaded or invalidated meanwhile.
+     */
+    static class CachedRecordCursor extends SpooledRecordCursor {
+        private final JdbcPool pool;
+        private final String query;
+        private final GenericRecordMetadata metadata;
+
+        CachedRecordCursor(JdbcPool pool, String query, GenericRecordMetadata metadata) {
+            super(metadata);
+            this.pool = pool;
+            this.query = query;
+            this.metadata = metadata;
+        }
+
+        @Override
+        RecordSpool open() throws Exception {
+            return ResultCache.INSTANCE.get(pool, query, metadata).spool;
+        }
+    }
+}
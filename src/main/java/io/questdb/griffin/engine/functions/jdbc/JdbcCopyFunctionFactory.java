@@ -0,0 +1,129 @@
+package io.questdb.griffin.engine.functions.jdbc;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.GenericRecordMetadata;
+import io.questdb.cairo.TableColumnMetadata;
+import io.questdb.cairo.TableWriter;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.NoRandomAccessRecordCursor;
+import io.questdb.cairo.sql.Record;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.engine.functions.CursorFunction;
+import io.questdb.griffin.engine.functions.GenericRecordCursorFactory;
+import io.questdb.std.ObjList;
+import lombok.SneakyThrows;
+
+/**
+ * {@code jdbc_copy('pool', 'query', 'table', commitRows)} appends the result of the remote query to a QuestDB table
+ * with {@link TableCopy}. Changes are committed every {@code commitRows} rows and once at the end, 0 commits only
+ * at the end. The cursor returns one row with the totals of the copy.
+ */
+public class JdbcCopyFunctionFactory implements FunctionFactory {
+    private static final GenericRecordMetadata REPORT_METADATA = new GenericRecordMetadata();
+    private static final int REPORT_ROWS = 0;
+    private static final int REPORT_BYTES = 1;
+    private static final int REPORT_COMMITS = 2;
+    private static final int REPORT_ELAPSED = 3;
+
+    static {
+        REPORT_METADATA.add(new TableColumnMetadata("rows", ColumnType.LONG));
+        REPORT_METADATA.add(new TableColumnMetadata("bytes", ColumnType.LONG));
+        REPORT_METADATA.add(new TableColumnMetadata("commits", ColumnType.LONG));
+        REPORT_METADATA.add(new TableColumnMetadata("elapsed_ms", ColumnType.LONG));
+    }
+
+    @Override
+    public String getSignature() {
+        return "jdbc_copy(SSSL)";
+    }
+
+    @Override
+    @SneakyThrows
+    public Function newInstance(ObjList<Function> args, int position, CairoConfiguration configuration) throws SqlException {
+        final CharSequence dataSourceName = args.getQuick(0).getStr(null);
+        final String query = String.valueOf(args.getQuick(1).getStr(null));
+        final String tableName = String.valueOf(args.getQuick(2).getStr(null));
+        final long commitRows = args.getQuick(3).getLong(null);
+        final int tablePosition = args.getQuick(2).getPosition();
+        if (commitRows < 0) {
+            throw SqlException.$(args.getQuick(3).getPosition(), "commit interval must not be negative");
+        }
+        JdbcPool pool = ConnectionFunctionFactory.getPool(String.valueOf(dataSourceName), args.getQuick(0).getPosition());
+        CairoEngine engine = ConnectionFunctionFactory.getEngine();
+
+        final GenericRecordMetadata metadata;
+        try (StatementHolder statementHolder = new StatementHolder(pool, query)) {
+            metadata = JdbcFunctionFactory.getMetadata(pool, query, statementHolder);
+        }
+        try (TableWriter writer = TableCopy.getWriter(engine, tableName, tablePosition)) {
+            // fails compilation early, mapping is resolved again when the copy runs
+            TableCopy.mapColumns(metadata, writer.getMetadata(), tablePosition);
+        }
+        return new CursorFunction(
+                position,
+                new GenericRecordCursorFactory(REPORT_METADATA,
+                        new CopyCursor(pool, query, new TableCopy(engine, pool, metadata, tableName, tablePosition, commitRows)), false)
+        );
+    }
+
+    static class CopyCursor implements NoRandomAccessRecordCursor {
+        private final JdbcPool pool;
+        private final String query;
+        private final TableCopy copy;
+        private final long[] report = new long[REPORT_METADATA.getColumnCount()];
+        private final Record record = new Record() {
+            @Override
+            public long getLong(int col) {
+                return report[col];
+            }
+        };
+        private boolean hasNext;
+        private boolean done;
+
+        CopyCursor(JdbcPool pool, String query, TableCopy copy) {
+            this.pool = pool;
+            this.query = query;
+            this.copy = copy;
+        }
+
+        @Override
+        public void close() {
+            done = false;
+        }
+
+        @Override
+        public Record getRecord() {
+            return record;
+        }
+
+        @Override
+        public boolean hasNext() {
+            boolean result = hasNext;
+            hasNext = false;
+            return result;
+        }
+
+        @Override
+        @SneakyThrows
+        public void toTop() {
+            // every execution of the query runs the copy again, rewinding the open cursor only returns the report
+            if (!done) {
+                copy.run(new StatementHolder(pool, query), -1);
+                report[REPORT_ROWS] = copy.getRows();
+                report[REPORT_BYTES] = copy.getBytes();
+                report[REPORT_COMMITS] = copy.getCommits();
+                report[REPORT_ELAPSED] = copy.getElapsed();
+                done = true;
+            }
+            hasNext = true;
+        }
+
+        @Override
+        public long size() {
+            return 1;
+        }
+    }
+}
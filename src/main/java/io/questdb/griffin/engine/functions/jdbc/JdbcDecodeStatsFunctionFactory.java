@@ -0,0 +1,61 @@
+package io.questdb.griffin.engine.functions.jdbc;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.GenericRecordMetadata;
+import io.questdb.cairo.TableColumnMetadata;
+import io.questdb.cairo.sql.Function;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.engine.functions.CursorFunction;
+import io.questdb.griffin.engine.functions.GenericRecordCursorFactory;
+import io.questdb.std.ObjList;
+
+/**
+ * {@code jdbc_decode_stats()} lists estimated time batched reads spent decoding values of each column type,
+ * per pool and query fingerprint. Values read row by row are decoded by the consumer of the cursor and aren't counted.
+ */
+public class JdbcDecodeStatsFunctionFactory implements FunctionFactory {
+    private static final GenericRecordMetadata METADATA = new GenericRecordMetadata();
+
+    static {
+        METADATA.add(new TableColumnMetadata("pool", ColumnType.STRING));
+        METADATA.add(new TableColumnMetadata("query", ColumnType.STRING));
+        METADATA.add(new TableColumnMetadata("column_type", ColumnType.STRING));
+        METADATA.add(new TableColumnMetadata("value_count", ColumnType.LONG));
+        METADATA.add(new TableColumnMetadata("decode_us", ColumnType.LONG));
+        METADATA.add(new TableColumnMetadata("ns_per_value", ColumnType.LONG));
+    }
+
+    @Override
+    public String getSignature() {
+        return "jdbc_decode_stats()";
+    }
+
+    @Override
+    public Function newInstance(ObjList<Function> args, int position, CairoConfiguration configuration) {
+        return new CursorFunction(
+                position,
+                new GenericRecordCursorFactory(METADATA, new DecodeStatsCursor(), false)
+        );
+    }
+
+    static class DecodeStatsCursor extends SnapshotRecordCursor {
+        DecodeStatsCursor() {
+            super(METADATA, 3);
+        }
+
+        @Override
+        void snapshot() {
+            for (QueryStats stats : QueryStats.snapshot()) {
+                for (int type = 0; type < stats.getDecodeNanos().length; type++) {
+                    long values = stats.getDecodedValues()[type].sum();
+                    if (values > 0) {
+                        long nanos = stats.getDecodeNanos()[type].sum();
+                        add(new String[]{stats.getPoolName(), stats.getFingerprint(), ColumnType.nameOf(type)},
+                                new long[]{values, nanos / 1000, nanos / values});
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package io.questdb.griffin.engine.functions.jdbc;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Daemon threads that run remote queries in the background, so QuestDB shutdown is never blocked by them.
+ */
+final class JdbcExecutors {
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+
+    static final ExecutorService READERS = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "jdbc-reader-" + THREAD_NUMBER.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "jdbc-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private JdbcExecutors() {
+    }
+}
@@ -0,0 +1,389 @@
+package io.questdb.griffin.engine.functions.jdbc;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.GenericRecordMetadata;
+import io.questdb.cairo.TableColumnMetadata;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.NoRandomAccessRecordCursor;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.engine.functions.CursorFunction;
+import io.questdb.griffin.engine.functions.GenericRecordCursorFactory;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.ObjList;
+import lombok.SneakyThrows;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * {@code jdbc_export('pool', (query), 'table')} inserts rows of a QuestDB query into a table of the remote database.
+ * The query thread collects rows into batches, {@code export_writers} connections of the pool take them from
+ * a bounded queue and send each batch with {@code executeBatch()}. Every connection commits on its own after
+ * {@code export_commit_size} rows, so a failed export leaves the chunks committed before the failure.
+ * <p>
+ * Query columns are inserted into the table columns of the same name. The cursor returns one row with the totals
+ * of the export.
+ */
+public class JdbcExportFunctionFactory implements FunctionFactory {
+    static final int DEFAULT_BATCH_SIZE = 1000;
+    // PostgreSQL has the lowest limit of bind parameters per statement among common databases
+    private static final int MAX_PARAMETERS = 32767;
+    private static final Log LOG = LogFactory.getLog(JdbcExportFunctionFactory.class);
+    private static final GenericRecordMetadata REPORT_METADATA = new GenericRecordMetadata();
+    private static final int REPORT_ROWS = 0;
+    private static final int REPORT_BATCHES = 1;
+    private static final int REPORT_COMMITS = 2;
+    private static final int REPORT_ELAPSED = 3;
+
+    static {
+        REPORT_METADATA.add(new TableColumnMetadata("rows", ColumnType.LONG));
+        REPORT_METADATA.add(new TableColumnMetadata("batches", ColumnType.LONG));
+        REPORT_METADATA.add(new TableColumnMetadata("commits", ColumnType.LONG));
+        REPORT_METADATA.add(new TableColumnMetadata("elapsed_ms", ColumnType.LONG));
+    }
+
+    @Override
+    public String getSignature() {
+        return "jdbc_export(SCS)";
+    }
+
+    @Override
+    public Function newInstance(ObjList<Function> args, int position, CairoConfiguration configuration) throws SqlException {
+        final CharSequence dataSourceName = args.getQuick(0).getStr(null);
+        final Function source = args.getQuick(1);
+        final String tableName = String.valueOf(args.getQuick(2).getStr(null));
+        JdbcPool pool = ConnectionFunctionFactory.getPool(String.valueOf(dataSourceName), args.getQuick(0).getPosition());
+
+        RecordMetadata metadata = source.getMetadata();
+        for (int col = 0; col < metadata.getColumnCount(); col++) {
+            if (!RecordBatch.isSupported(metadata.getColumnType(col))) {
+                throw SqlException.$(source.getPosition(), "column type isn't supported by JDBC export ")
+                        .put(ColumnType.nameOf(metadata.getColumnType(col)));
+            }
+        }
+        int writers = Math.max(1, pool.getExportWriters());
+        if (writers > pool.getDataSource().getMaximumPoolSize()) {
+            throw SqlException.$(position, "export_writers must not exceed max_pool_size ")
+                    .put(pool.getDataSource().getMaximumPoolSize());
+        }
+        return new CursorFunction(
+                position,
+                new GenericRecordCursorFactory(REPORT_METADATA,
+                        new ExportCursor(pool, source.getRecordCursorFactory(), metadata, tableName, writers), false)
+        );
+    }
+
+    static String insertStatement(Identifiers identifiers, String tableName, RecordMetadata metadata, int rows) {
+        StringBuilder sql = new StringBuilder("insert into ").append(identifiers.quoteQualified(tableName)).append(" (");
+        StringBuilder values = new StringBuilder("(");
+        for (int col = 0, n = metadata.getColumnCount(); col < n; col++) {
+            if (col > 0) {
+                sql.append(", ");
+                values.append(", ");
+            }
+            sql.append(identifiers.quote(metadata.getColumnName(col)));
+            values.append('?');
+        }
+        sql.append(") values ");
+        values.append(')');
+        for (int row = 0; row < rows; row++) {
+            if (row > 0) {
+                sql.append(", ");
+            }
+            sql.append(values);
+        }
+        return sql.toString();
+    }
+
+    static class ExportCursor implements NoRandomAccessRecordCursor {
+        private final JdbcPool pool;
+        private final RecordCursorFactory source;
+        private final RecordMetadata metadata;
+        private final String tableName;
+        private final int writerCount;
+        private final long[] report = new long[REPORT_METADATA.getColumnCount()];
+        private final Record record = new Record() {
+            @Override
+            public long getLong(int col) {
+                return report[col];
+            }
+        };
+        private boolean hasNext;
+        private boolean done;
+
+        ExportCursor(JdbcPool pool, RecordCursorFactory source, RecordMetadata metadata, String tableName, int writerCount) {
+            this.pool = pool;
+            this.source = source;
+            this.metadata = metadata;
+            this.tableName = tableName;
+            this.writerCount = writerCount;
+        }
+
+        @Override
+        public void close() {
+            done = false;
+        }
+
+        @Override
+        public Record getRecord() {
+            return record;
+        }
+
+        @Override
+        public boolean hasNext() {
+            boolean result = hasNext;
+            hasNext = false;
+            return result;
+        }
+
+        @Override
+        @SneakyThrows
+        public void toTop() {
+            // every execution of the query runs the export again, rewinding the open cursor only returns the report
+            if (!done) {
+                export();
+                done = true;
+            }
+            hasNext = true;
+        }
+
+        @Override
+        public long size() {
+            return 1;
+        }
+
+        private void export() throws Exception {
+            final long started = System.currentTimeMillis();
+            final int batchSize = pool.getExportBatchSize() > 0 ? pool.getExportBatchSize() : DEFAULT_BATCH_SIZE;
+            final int rowsPerStatement = pool.isExportMultiRow()
+                    ? Math.max(1, Math.min(batchSize, MAX_PARAMETERS / metadata.getColumnCount())) : 1;
+            // two batches per writer, one is being sent while the other is filled
+            final BlockingQueue<RecordBatch> free = new ArrayBlockingQueue<>(writerCount * 2);
+            final BlockingQueue<RecordBatch> ready = new ArrayBlockingQueue<>(writerCount * 3);
+            final RecordBatch end = new RecordBatch(metadata, 1, pool.getTimeZone());
+            final AtomicBoolean failed = new AtomicBoolean();
+            final Identifiers identifiers = pool.getIdentifiers();
+            for (int i = 0; i < writerCount * 2; i++) {
+                free.add(new RecordBatch(metadata, batchSize, pool.getTimeZone()));
+            }
+            final Writer[] writers = new Writer[writerCount];
+            final ObjList<Future<Long>> futures = new ObjList<>(writerCount);
+            for (int i = 0; i < writerCount; i++) {
+                writers[i] = new Writer(pool.getDataSource(), identifiers, tableName, metadata, rowsPerStatement,
+                        pool.getExportCommitSize(), free, ready, end, failed);
+                futures.add(JdbcExecutors.READERS.submit(writers[i]));
+            }
+
+            long rows = 0;
+            long batches = 0;
+            Throwable error = null;
+            try (RecordCursor cursor = source.getCursor()) {
+                Record record = cursor.getRecord();
+                RecordBatch batch = null;
+                while (cursor.hasNext()) {
+                    if (batch == null && (batch = takeFree(free, failed)) == null) {
+                        break;
+                    }
+                    rows++;
+                    if (batch.add(record)) {
+                        ready.add(batch);
+                        batches++;
+                        batch = null;
+                    }
+                }
+                if (batch != null && batch.size() > 0) {
+                    ready.add(batch);
+                    batches++;
+                }
+            } catch (Throwable e) {
+                error = e;
+                failed.set(true);
+            } finally {
+                for (int i = 0; i < writerCount; i++) {
+                    ready.add(end);
+                }
+            }
+
+            long commits = 0;
+            for (int i = 0; i < writerCount; i++) {
+                try {
+                    commits += futures.getQuick(i).get();
+                } catch (ExecutionException e) {
+                    if (error == null) {
+                        error = e.getCause();
+                    }
+                }
+            }
+            if (error != null) {
+                throw error instanceof Exception ? (Exception) error : new SQLException(error);
+            }
+            report[REPORT_ROWS] = rows;
+            report[REPORT_BATCHES] = batches;
+            report[REPORT_COMMITS] = commits;
+            report[REPORT_ELAPSED] = System.currentTimeMillis() - started;
+            LOG.info().$("jdbc_export done [table=").$(tableName).$(", rows=").$(rows).$(", batches=").$(batches)
+                    .$(", commits=").$(commits).$(", elapsed_ms=").$(report[REPORT_ELAPSED]).$("]").$();
+        }
+
+        /**
+         * @return free batch or null when a writer failed and the export has to stop
+         */
+        private static RecordBatch takeFree(BlockingQueue<RecordBatch> free, AtomicBoolean failed) throws InterruptedException {
+            while (!failed.get()) {
+                RecordBatch batch = free.poll(100, TimeUnit.MILLISECONDS);
+                if (batch != null) {
+                    return batch;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Sends batches over its own connection until it takes the end marker. When the export fails anywhere,
+     * all writers roll back the uncommitted rows.
+     *
+     * @return number of commits
+     */
+    private static class Writer implements Callable<Long> {
+        private final DataSource dataSource;
+        private final Identifiers identifiers;
+        private final String tableName;
+        private final RecordMetadata metadata;
+        private final int rowsPerStatement;
+        private final long commitSize;
+        private final BlockingQueue<RecordBatch> free;
+        private final BlockingQueue<RecordBatch> ready;
+        private final RecordBatch end;
+        private final AtomicBoolean failed;
+        private boolean ended;
+
+        private Writer(DataSource dataSource, Identifiers identifiers, String tableName, RecordMetadata metadata,
+                       int rowsPerStatement, long commitSize, BlockingQueue<RecordBatch> free, BlockingQueue<RecordBatch> ready,
+                       RecordBatch end, AtomicBoolean failed) {
+            this.dataSource = dataSource;
+            this.identifiers = identifiers;
+            this.tableName = tableName;
+            this.metadata = metadata;
+            this.rowsPerStatement = rowsPerStatement;
+            this.commitSize = commitSize;
+            this.free = free;
+            this.ready = ready;
+            this.end = end;
+            this.failed = failed;
+        }
+
+        @Override
+        public Long call() throws Exception {
+            try {
+                return send();
+            } catch (Throwable e) {
+                // covers connection setup too, the query thread stops filling batches as soon as this is set
+                failed.set(true);
+                // keeps recycling batches, so the query thread doesn't wait for a free one
+                drain();
+                throw e;
+            }
+        }
+
+        private long send() throws Exception {
+            long commits = 0;
+            try (Connection connection = dataSource.getConnection()) {
+                boolean autoCommit = connection.getAutoCommit();
+                connection.setAutoCommit(false);
+                try (PreparedStatement statement = connection.prepareStatement(insertStatement(identifiers, tableName, metadata, rowsPerStatement))) {
+                    long uncommitted = 0;
+                    RecordBatch batch;
+                    while ((batch = takeReady()) != end) {
+                        try {
+                            if (!failed.get()) {
+                                write(connection, statement, batch);
+                                uncommitted += batch.size();
+                            }
+                        } finally {
+                            batch.clear();
+                            free.add(batch);
+                        }
+                        if (commitSize > 0 && uncommitted >= commitSize) {
+                            connection.commit();
+                            commits++;
+                            uncommitted = 0;
+                        }
+                    }
+                    if (failed.get()) {
+                        connection.rollback();
+                    } else if (uncommitted > 0) {
+                        connection.commit();
+                        commits++;
+                    }
+                } catch (Throwable e) {
+                    failed.set(true);
+                    try {
+                        connection.rollback();
+                    } catch (Throwable rollbackError) {
+                        e.addSuppressed(rollbackError);
+                    }
+                    throw e;
+                } finally {
+                    connection.setAutoCommit(autoCommit);
+                }
+            }
+            return commits;
+        }
+
+        private RecordBatch takeReady() throws InterruptedException {
+            RecordBatch batch = ready.take();
+            ended = batch == end;
+            return batch;
+        }
+
+        /**
+         * Recycles batches until the end marker, unless the writer failed after it already took it.
+         */
+        private void drain() throws InterruptedException {
+            RecordBatch batch;
+            while (!ended && (batch = takeReady()) != end) {
+                batch.clear();
+                free.add(batch);
+            }
+        }
+
+        private void write(Connection connection, PreparedStatement statement, RecordBatch batch) throws SQLException {
+            final int size = batch.size();
+            final int columnCount = batch.columnCount();
+            int row = 0;
+            for (; row + rowsPerStatement <= size; row += rowsPerStatement) {
+                for (int i = 0; i < rowsPerStatement; i++) {
+                    batch.bind(statement, i * columnCount + 1, row + i);
+                }
+                statement.addBatch();
+            }
+            statement.executeBatch();
+            if (row < size) {
+                // the last rows don't fill a whole multi-row statement
+                try (PreparedStatement tail = connection.prepareStatement(insertStatement(identifiers, tableName, metadata, size - row))) {
+                    for (int i = 0; row + i < size; i++) {
+                        batch.bind(tail, i * columnCount + 1, row + i);
+                    }
+                    tail.executeUpdate();
+                }
+            }
+        }
+    }
+}
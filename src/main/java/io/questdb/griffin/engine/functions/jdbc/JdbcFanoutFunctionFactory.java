@@ -0,0 +1,137 @@
+package io.questdb.griffin.engine.functions.jdbc;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.GenericRecordMetadata;
+import io.questdb.cairo.TableColumnMetadata;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.engine.functions.CursorFunction;
+import io.questdb.griffin.engine.functions.GenericRecordCursorFactory;
+import io.questdb.std.ObjList;
+import lombok.SneakyThrows;
+
+/**
+ * {@code jdbc_fanout('pool1,pool2', 'query')} runs the same query on every pool at the same time, each on its own
+ * connection, and returns rows of all of them in the order they arrive. Pools must return the same column names,
+ * types may differ when one widens to the other, e.g. INT and LONG are read as LONG, STRING and SYMBOL as STRING.
+ * <p>
+ * Any failed pool fails the query, see {@link JdbcFanoutPolicyFunctionFactory} for timeouts and partial results.
+ */
+public class JdbcFanoutFunctionFactory implements FunctionFactory {
+    @Override
+    public String getSignature() {
+        return "jdbc_fanout(SS)";
+    }
+
+    @Override
+    @SneakyThrows
+    public Function newInstance(ObjList<Function> args, int position, CairoConfiguration configuration) throws SqlException {
+        return newInstance(args, position, 0, false);
+    }
+
+    Function newInstance(ObjList<Function> args, int position, long timeoutMillis, boolean partial) throws Exception {
+        final String poolList = String.valueOf(args.getQuick(0).getStr(null));
+        final String query = String.valueOf(args.getQuick(1).getStr(null));
+        final int poolsPosition = args.getQuick(0).getPosition();
+
+        String[] poolNames = poolList.split(",");
+        ObjList<StatementHolder> statementHolders = new ObjList<>(poolNames.length);
+        GenericRecordMetadata metadata = null;
+        int batchSize = 0;
+        for (String poolName : poolNames) {
+            JdbcPool pool = ConnectionFunctionFactory.getPool(poolName.trim(), poolsPosition);
+            GenericRecordMetadata poolMetadata;
+            try (StatementHolder statementHolder = new StatementHolder(pool, query)) {
+                poolMetadata = JdbcFunctionFactory.getMetadata(pool, query, statementHolder);
+            }
+            metadata = metadata == null ? poolMetadata : merge(metadata, poolMetadata, pool.getName(), poolsPosition);
+            if (batchSize == 0) {
+                batchSize = pool.getBatchSize();
+            }
+            statementHolders.add(new StatementHolder(pool, query));
+        }
+        if (batchSize == 0) {
+            batchSize = JdbcPartitionedFunctionFactory.DEFAULT_BATCH_SIZE;
+        }
+        return new CursorFunction(
+                position,
+                new GenericRecordCursorFactory(metadata,
+                        new AsyncRecordCursor(statementHolders, metadata, batchSize,
+                                JdbcPartitionedFunctionFactory.QUEUE_DEPTH, timeoutMillis, partial), false)
+        );
+    }
+
+    /**
+     * @return metadata both pools can be read into
+     */
+    static GenericRecordMetadata merge(RecordMetadata merged, RecordMetadata metadata, String poolName, int position) throws SqlException {
+        if (merged.getColumnCount() != metadata.getColumnCount()) {
+            throw SqlException.$(position, "pool ").put(poolName).put(" returns ").put(metadata.getColumnCount())
+                    .put(" columns, expected ").put(merged.getColumnCount());
+        }
+        GenericRecordMetadata result = new GenericRecordMetadata();
+        for (int col = 0, n = merged.getColumnCount(); col < n; col++) {
+            String name = merged.getColumnName(col).toString();
+            if (!name.equalsIgnoreCase(metadata.getColumnName(col).toString())) {
+                throw SqlException.$(position, "pool ").put(poolName).put(" returns column ")
+                        .put(metadata.getColumnName(col)).put(", expected ").put(name);
+            }
+            int type = commonType(merged.getColumnType(col), metadata.getColumnType(col));
+            if (type == -1) {
+                throw SqlException.$(position, "pool ").put(poolName).put(" returns ")
+                        .put(ColumnType.nameOf(metadata.getColumnType(col))).put(" column ").put(name)
+                        .put(", expected ").put(ColumnType.nameOf(merged.getColumnType(col)));
+            }
+            result.add(new TableColumnMetadata(name, type));
+        }
+        return result;
+    }
+
+    /**
+     * @return type values of both types can be read as without loss, -1 when there is none
+     */
+    static int commonType(int a, int b) {
+        if (a == b) {
+            return a;
+        }
+        if (TableCopy.isText(a) && TableCopy.isText(b)) {
+            return ColumnType.STRING;
+        }
+        if (integerRank(a) != -1 && integerRank(b) != -1) {
+            return integerRank(a) > integerRank(b) ? a : b;
+        }
+        if (isNumeric(a) && isNumeric(b)) {
+            return ColumnType.DOUBLE;
+        }
+        if (isTemporal(a) && isTemporal(b)) {
+            return ColumnType.TIMESTAMP;
+        }
+        return -1;
+    }
+
+    private static int integerRank(int columnType) {
+        switch (columnType) {
+            case ColumnType.BYTE:
+                return 0;
+            case ColumnType.SHORT:
+                return 1;
+            case ColumnType.INT:
+                return 2;
+            case ColumnType.LONG:
+                return 3;
+            default:
+                return -1;
+        }
+    }
+
+    private static boolean isNumeric(int columnType) {
+        return integerRank(columnType) != -1 || columnType == ColumnType.FLOAT || columnType == ColumnType.DOUBLE;
+    }
+
+    private static boolean isTemporal(int columnType) {
+        return columnType == ColumnType.DATE || columnType == ColumnType.TIMESTAMP;
+    }
+}
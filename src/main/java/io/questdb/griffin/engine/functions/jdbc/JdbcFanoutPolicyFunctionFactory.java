@@ -0,0 +1,34 @@
+package io.questdb.griffin.engine.functions.jdbc;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.sql.Function;
+import io.questdb.griffin.SqlException;
+import io.questdb.std.ObjList;
+import lombok.SneakyThrows;
+
+/**
+ * {@code jdbc_fanout('pool1,pool2', 'query', timeout, 'policy')} is {@code jdbc_fanout()} where every pool has
+ * {@code timeout} milliseconds of remote execution and fetching to return all its rows, 0 means no limit. Policy {@code fail} fails the query
+ * when any pool fails or times out, {@code partial} skips such pools and keeps rows they already returned.
+ */
+public class JdbcFanoutPolicyFunctionFactory extends JdbcFanoutFunctionFactory {
+    @Override
+    public String getSignature() {
+        return "jdbc_fanout(SSLS)";
+    }
+
+    @Override
+    @SneakyThrows
+    public Function newInstance(ObjList<Function> args, int position, CairoConfiguration configuration) throws SqlException {
+        final long timeoutMillis = args.getQuick(2).getLong(null);
+        final String policy = String.valueOf(args.getQuick(3).getStr(null));
+        if (timeoutMillis < 0) {
+            throw SqlException.$(args.getQuick(2).getPosition(), "timeout must not be negative");
+        }
+        if (!"fail".equalsIgnoreCase(policy) && !"partial".equalsIgnoreCase(policy)) {
+            throw SqlException.$(args.getQuick(3).getPosition(), "unknown failure policy ").put(policy)
+                    .put(", expected fail or partial");
+        }
+        return newInstance(args, position, timeoutMillis, "partial".equalsIgnoreCase(policy));
+    }
+}
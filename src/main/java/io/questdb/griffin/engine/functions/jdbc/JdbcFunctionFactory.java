@@ -4,18 +4,30 @@ import io.questdb.cairo.*;
 import io.questdb.cairo.sql.Function;
 import io.questdb.cairo.sql.NoRandomAccessRecordCursor;
 import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.cairo.sql.SymbolTable;
 import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.engine.functions.CursorFunction;
 import io.questdb.griffin.engine.functions.GenericRecordCursorFactory;
+import io.questdb.std.BinarySequence;
 import io.questdb.std.IntIntHashMap;
 import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.StringSink;
 import lombok.SneakyThrows;
 
-import javax.sql.DataSource;
 import java.io.Closeable;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
 import java.sql.*;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 
 public class JdbcFunctionFactory implements FunctionFactory {
     private static final IntIntHashMap jdbcToQuestColumnType = new IntIntHashMap();
@@ -25,6 +37,8 @@ public class JdbcFunctionFactory implements FunctionFactory {
         jdbcToQuestColumnType.put(Types.NVARCHAR, ColumnType.STRING);
         jdbcToQuestColumnType.put(Types.LONGVARCHAR, ColumnType.STRING);
         jdbcToQuestColumnType.put(Types.LONGNVARCHAR, ColumnType.STRING);
+        jdbcToQuestColumnType.put(Types.CLOB, ColumnType.STRING);
+        jdbcToQuestColumnType.put(Types.NCLOB, ColumnType.STRING);
         jdbcToQuestColumnType.put(Types.TIMESTAMP, ColumnType.TIMESTAMP);
         jdbcToQuestColumnType.put(Types.TIMESTAMP_WITH_TIMEZONE, ColumnType.TIMESTAMP);
         jdbcToQuestColumnType.put(Types.TIME, ColumnType.TIMESTAMP);
@@ -39,8 +53,36 @@ public class JdbcFunctionFactory implements FunctionFactory {
         jdbcToQuestColumnType.put(Types.BINARY, ColumnType.BINARY);
         jdbcToQuestColumnType.put(Types.LONGVARBINARY, ColumnType.BINARY);
         jdbcToQuestColumnType.put(Types.VARBINARY, ColumnType.BINARY);
-        //jdbcToQuestColumnType.put(ColumnType.BYTE);
-        //jdbcToQuestColumnType.put(ColumnType.SYMBOL);
+        jdbcToQuestColumnType.put(Types.BLOB, ColumnType.BINARY);
+        // NUMERIC, DECIMAL, TINYINT, CHAR and NCHAR depend on precision, see getColumnType()
+    }
+
+    /**
+     * Widest integral DECIMAL read as LONG, wider or fractional ones are read as DOUBLE.
+     */
+    private static final int MAX_LONG_DECIMAL_PRECISION = 18;
+    /**
+     * Sampled text column becomes SYMBOL when it has at most one distinct value per this many rows.
+     */
+    private static final int SYMBOL_SAMPLE_RATIO = 10;
+
+    private static final IntIntHashMap questToJdbcColumnType = new IntIntHashMap();
+
+    static {
+        questToJdbcColumnType.put(ColumnType.STRING, Types.VARCHAR);
+        questToJdbcColumnType.put(ColumnType.SYMBOL, Types.VARCHAR);
+        questToJdbcColumnType.put(ColumnType.TIMESTAMP, Types.TIMESTAMP);
+        questToJdbcColumnType.put(ColumnType.DOUBLE, Types.DOUBLE);
+        questToJdbcColumnType.put(ColumnType.FLOAT, Types.REAL);
+        questToJdbcColumnType.put(ColumnType.INT, Types.INTEGER);
+        questToJdbcColumnType.put(ColumnType.SHORT, Types.SMALLINT);
+        questToJdbcColumnType.put(ColumnType.BYTE, Types.TINYINT);
+        questToJdbcColumnType.put(ColumnType.CHAR, Types.CHAR);
+        questToJdbcColumnType.put(ColumnType.LONG, Types.BIGINT);
+        questToJdbcColumnType.put(ColumnType.BOOLEAN, Types.BOOLEAN);
+        // QuestDB date has time of day, JDBC DATE doesn't
+        questToJdbcColumnType.put(ColumnType.DATE, Types.TIMESTAMP);
+        questToJdbcColumnType.put(ColumnType.BINARY, Types.VARBINARY);
     }
 
     private static final NullColumn NULL = NullColumn.INSTANCE;
@@ -55,35 +97,169 @@ public class JdbcFunctionFactory implements FunctionFactory {
     public Function newInstance(ObjList<Function> args, int position, CairoConfiguration configuration) throws SqlException {
         final CharSequence dataSourceName = args.getQuick(0).getStr(null);
         final CharSequence query = args.getQuick(1).getStr(null);
-        DataSource dataSource = ConnectionFunctionFactory.getDataSource(String.valueOf(dataSourceName));
-        StatementHolder statementHolder = new StatementHolder(dataSource, String.valueOf(query), true);
-        final GenericRecordMetadata metadata = getResultSetMetadata(statementHolder.getResultSet());
+        JdbcPool pool = ConnectionFunctionFactory.getPool(String.valueOf(dataSourceName), args.getQuick(0).getPosition());
+        final String queryText = String.valueOf(query);
+        StatementHolder statementHolder = new StatementHolder(pool, queryText, ArgumentBinder.of(args, 2, pool.getTimeZone()));
+        final GenericRecordMetadata metadata;
+        try {
+            metadata = getMetadata(pool, queryText, statementHolder);
+        } finally {
+            // compiled query doesn't pin a connection, the cursor borrows one when it is opened
+            statementHolder.close();
+        }
+        if (pool.isMaterialize()) {
+            int batchSize = pool.getBatchSize() > 0 ? pool.getBatchSize() : JdbcPartitionedFunctionFactory.DEFAULT_BATCH_SIZE;
+            return new CursorFunction(
+                    position,
+                    new GenericRecordCursorFactory(metadata, new MaterializedRecordCursor(statementHolder, metadata, batchSize,
+                            RecordSpool.memoryLimit(pool)), true)
+            );
+        }
+        final RecordCursor cursor;
+        if (pool.getPrefetchDepth() > 0) {
+            ObjList<StatementHolder> statementHolders = new ObjList<>(1);
+            statementHolders.add(statementHolder);
+            int batchSize = pool.getBatchSize() > 0 ? pool.getBatchSize() : JdbcPartitionedFunctionFactory.DEFAULT_BATCH_SIZE;
+            cursor = new AsyncRecordCursor(statementHolders, metadata, batchSize, pool.getPrefetchDepth());
+        } else {
+            cursor = new JdbcRecordCursor(statementHolder, metadata, pool.getBatchSize());
+        }
         return new CursorFunction(
                 position,
-                new GenericRecordCursorFactory(metadata, new JdbcRecordCursor(statementHolder), false)
+                new GenericRecordCursorFactory(metadata, cursor, false)
         );
     }
 
-    private GenericRecordMetadata getResultSetMetadata(ResultSet resultSet) throws SQLException, SqlException {
-        ResultSetMetaData metaData = resultSet.getMetaData();
+    static GenericRecordMetadata getMetadata(JdbcPool pool, String query, StatementHolder statementHolder) throws SQLException, SqlException {
+        boolean sampled = pool.getSymbolSampleRows() > 0;
+        GenericRecordMetadata metadata = MetadataCache.INSTANCE.get(pool.getName(), query, pool.getMetadataTtl(), sampled);
+        if (metadata == null) {
+            metadata = getResultSetMetadata(statementHolder.describe(), pool.getSymbolColumns());
+            if (sampled) {
+                metadata = sampleSymbols(metadata, statementHolder.sample(pool.getSymbolSampleRows()));
+            }
+            if (pool.getMetadataTtl() > 0 || sampled) {
+                MetadataCache.INSTANCE.put(pool.getName(), query, metadata);
+            }
+        }
+        return metadata;
+    }
+
+    /**
+     * @return JDBC type used to write values of QuestDB column type or -1 when the type can't be written
+     */
+    static int toJdbcType(int columnType) {
+        return questToJdbcColumnType.get(columnType);
+    }
+
+    /**
+     * @param symbolColumns comma separated names of text columns read as SYMBOL, null for none
+     */
+    static GenericRecordMetadata getResultSetMetadata(ResultSetMetaData metaData, String symbolColumns) throws SQLException, SqlException {
         final GenericRecordMetadata metadata = new GenericRecordMetadata();
         for (int columnIdx = 1; columnIdx <= metaData.getColumnCount(); columnIdx++) {
-            int columnType = jdbcToQuestColumnType.get(metaData.getColumnType(columnIdx));
+            int columnType = getColumnType(metaData, columnIdx);
             if (columnType == -1) {
                 throw SqlException.$(1,"JDBC column type isn't supported ").
                         put(metaData.getColumnTypeName(columnIdx));
             }
-            metadata.add(new TableColumnMetadata(metaData.getColumnName(columnIdx), columnType));
+            String columnName = metaData.getColumnName(columnIdx);
+            if (columnType == ColumnType.STRING && isSymbolColumn(symbolColumns, columnName)) {
+                columnType = ColumnType.SYMBOL;
+            }
+            metadata.add(new TableColumnMetadata(columnName, columnType));
         }
         return metadata;
     }
 
+    private static int getColumnType(ResultSetMetaData metaData, int columnIdx) throws SQLException {
+        final int jdbcType = metaData.getColumnType(columnIdx);
+        switch (jdbcType) {
+            case Types.NUMERIC:
+            case Types.DECIMAL:
+                // integral values are exact as LONG, BigDecimal isn't materialized either way
+                int precision = metaData.getPrecision(columnIdx);
+                return metaData.getScale(columnIdx) == 0 && precision > 0 && precision <= MAX_LONG_DECIMAL_PRECISION
+                        ? ColumnType.LONG : ColumnType.DOUBLE;
+            case Types.TINYINT:
+                // TINYINT of MySQL UNSIGNED and SQL Server goes up to 255
+                return metaData.isSigned(columnIdx) ? ColumnType.BYTE : ColumnType.SHORT;
+            case Types.CHAR:
+            case Types.NCHAR:
+                return metaData.getPrecision(columnIdx) == 1 ? ColumnType.CHAR : ColumnType.STRING;
+            default:
+                return jdbcToQuestColumnType.get(jdbcType);
+        }
+    }
+
+    private static boolean isSymbolColumn(String symbolColumns, String columnName) {
+        if (symbolColumns == null) {
+            return false;
+        }
+        for (String name : symbolColumns.split(",")) {
+            if (name.trim().equalsIgnoreCase(columnName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads STRING columns as SYMBOL when the sampled rows have at most one distinct value
+     * per {@link #SYMBOL_SAMPLE_RATIO} rows.
+     */
+    private static GenericRecordMetadata sampleSymbols(GenericRecordMetadata metadata, ResultSet sample) throws SQLException {
+        final Map<Integer, Set<String>> distinctValues = new HashMap<>();
+        for (int col = 0; col < metadata.getColumnCount(); col++) {
+            if (metadata.getColumnType(col) == ColumnType.STRING) {
+                distinctValues.put(col, new HashSet<>());
+            }
+        }
+        if (distinctValues.isEmpty()) {
+            return metadata;
+        }
+        long rows = 0;
+        while (sample.next()) {
+            rows++;
+            for (Map.Entry<Integer, Set<String>> entry : distinctValues.entrySet()) {
+                String value = sample.getString(entry.getKey() + 1);
+                if (value != null) {
+                    entry.getValue().add(value);
+                }
+            }
+        }
+        final GenericRecordMetadata sampled = new GenericRecordMetadata();
+        for (int col = 0; col < metadata.getColumnCount(); col++) {
+            Set<String> values = distinctValues.get(col);
+            boolean symbol = values != null && rows > 0 && (long) values.size() * SYMBOL_SAMPLE_RATIO <= rows;
+            sampled.add(new TableColumnMetadata(String.valueOf(metadata.getColumnName(col)),
+                    symbol ? ColumnType.SYMBOL : metadata.getColumnType(col)));
+        }
+        return sampled;
+    }
+
     static class JdbcRecordCursor implements NoRandomAccessRecordCursor {
 
+        private final StatementHolder statementHolder;
+        private final SymbolDictionary[] symbols;
         private final JdbcRecord record;
+        private final RecordBatch batch;
+        private final BatchRecord batchRecord;
+        private int batchRow;
+        private boolean moreRows = true;
 
-        JdbcRecordCursor(StatementHolder statementHolder) {
-            record = new JdbcRecord(statementHolder);
+        JdbcRecordCursor(StatementHolder statementHolder, RecordMetadata metadata, int batchSize) {
+            this.statementHolder = statementHolder;
+            this.symbols = SymbolDictionary.of(metadata);
+            this.record = new JdbcRecord(statementHolder, metadata, symbols);
+            if (batchSize > 0) {
+                batch = new RecordBatch(metadata, batchSize, symbols, statementHolder.getTimeZone());
+                batchRecord = new BatchRecord(metadata);
+                batchRecord.of(batch);
+            } else {
+                batch = null;
+                batchRecord = null;
+            }
         }
 
         @Override
@@ -94,18 +270,43 @@ public class JdbcFunctionFactory implements FunctionFactory {
 
         @Override
         public Record getRecord() {
-            return record;
+            return batch != null ? batchRecord : record;
         }
 
         @Override
+        @SneakyThrows
         public boolean hasNext() {
-            return record.next();
+            if (batch == null) {
+                return record.next();
+            }
+            if (++batchRow < batch.size()) {
+                batchRecord.setRow(batchRow);
+                return true;
+            }
+            if (!moreRows) {
+                return false;
+            }
+            moreRows = statementHolder.fill(batch);
+            batchRow = 0;
+            batchRecord.setRow(0);
+            return batch.size() > 0;
         }
 
 
+        @Override
+        public SymbolTable getSymbolTable(int columnIndex) {
+            return symbols[columnIndex];
+        }
+
         @Override
         public void toTop() {
+            SymbolDictionary.clear(symbols);
             record.init();
+            if (batch != null) {
+                batch.clear();
+                batchRow = 0;
+                moreRows = true;
+            }
         }
 
         @Override
@@ -114,16 +315,109 @@ public class JdbcFunctionFactory implements FunctionFactory {
         }
     }
 
-    static class JdbcRecord implements Record, Closeable {
-        private StatementHolder statementHolder;
+    /**
+     * Spools the whole remote result on the first rewind after the cursor is closed and releases the connection
+     * right after, following rewinds of the same execution don't touch the remote database.
+     */
+    static class MaterializedRecordCursor extends SpooledRecordCursor {
+        private final StatementHolder statementHolder;
+        private final RecordMetadata metadata;
+        private final int batchSize;
+        private final long memoryLimit;
+
+        MaterializedRecordCursor(StatementHolder statementHolder, RecordMetadata metadata, int batchSize, long memoryLimit) {
+            super(metadata);
+            this.statementHolder = statementHolder;
+            this.metadata = metadata;
+            this.batchSize = batchSize;
+            this.memoryLimit = memoryLimit;
+        }
+
+        @Override
+        @SneakyThrows
+        public void close() {
+            super.close();
+            statementHolder.close();
+        }
 
-        JdbcRecord(StatementHolder statementHolder) {
+        @Override
+        RecordSpool open() throws Exception {
+            try (StatementHolder ignored = statementHolder) {
+                statementHolder.createUnlimitedResultSet();
+                return RecordSpool.read(statementHolder, metadata, batchSize, memoryLimit);
+            }
+        }
+    }
+
+    static boolean isCharacterStream(int jdbcType) {
+        return jdbcType == Types.LONGVARCHAR || jdbcType == Types.LONGNVARCHAR
+                || jdbcType == Types.CLOB || jdbcType == Types.NCLOB;
+    }
+
+    static class JdbcRecord implements Record, Closeable {
+        private final StatementHolder statementHolder;
+        private final StrColumn[] strColumns;
+        private final BinColumn[] binColumns;
+        private final TemporalCodec[] temporalColumns;
+        private final SymbolDictionary[] symbols;
+        private final int[] symbolKeys;
+        private final long[] symbolRows;
+        private final char[] buffer = new char[4096];
+        private final byte[] binBuffer = new byte[8192];
+        private long rowNum;
+
+        JdbcRecord(StatementHolder statementHolder, RecordMetadata metadata, SymbolDictionary[] symbols) {
             this.statementHolder = statementHolder;
+            this.symbols = symbols;
+            this.symbolKeys = new int[metadata.getColumnCount()];
+            this.symbolRows = new long[metadata.getColumnCount()];
+            Arrays.fill(symbolRows, -1);
+            this.strColumns = new StrColumn[metadata.getColumnCount()];
+            this.binColumns = new BinColumn[metadata.getColumnCount()];
+            this.temporalColumns = new TemporalCodec[metadata.getColumnCount()];
+            // fetched bytes are counted like batches count them, see RecordBatch#dataSize()
+            long rowSize = 0;
+            for (int col = 0; col < strColumns.length; col++) {
+                int columnType = metadata.getColumnType(col);
+                if (columnType == ColumnType.STRING || columnType == ColumnType.SYMBOL || columnType == ColumnType.CHAR) {
+                    strColumns[col] = new StrColumn(columnType == ColumnType.STRING);
+                } else if (columnType == ColumnType.BINARY) {
+                    binColumns[col] = new BinColumn();
+                } else if (columnType == ColumnType.DATE || columnType == ColumnType.TIMESTAMP) {
+                    temporalColumns[col] = new TemporalCodec(statementHolder.getTimeZone());
+                }
+                if (columnType != ColumnType.STRING && columnType != ColumnType.BINARY) {
+                    rowSize += ColumnType.sizeOf(columnType);
+                }
+            }
+            statementHolder.setRowSize(rowSize);
         }
 
         @SneakyThrows
         void init() {
             statementHolder.createUnlimitedResultSet();
+            ResultSetMetaData metaData = statementHolder.getResultSet().getMetaData();
+            for (int col = 0; col < strColumns.length; col++) {
+                if (strColumns[col] != null) {
+                    strColumns[col].of(isCharacterStream(metaData.getColumnType(col + 1)));
+                } else if (binColumns[col] != null) {
+                    binColumns[col].of(metaData.getColumnType(col + 1) == Types.BLOB);
+                } else if (temporalColumns[col] != null) {
+                    temporalColumns[col].of(metaData.getColumnType(col + 1));
+                }
+            }
+        }
+
+        @Override
+        @SneakyThrows
+        public BinarySequence getBin(int col) {
+            return binColumns[col].get(statementHolder, col + 1, rowNum, binBuffer);
+        }
+
+        @Override
+        @SneakyThrows
+        public long getBinLen(int col) {
+            return binColumns[col].length(statementHolder, col + 1, rowNum, binBuffer);
         }
 
         @Override
@@ -146,11 +440,17 @@ public class JdbcFunctionFactory implements FunctionFactory {
             return val;
         }
 
+        @Override
+        @SneakyThrows
+        public char getChar(int col) {
+            CharSequence val = getStr(col);
+            return val != null && val.length() > 0 ? val.charAt(0) : NULL.getChar(col);
+        }
+
         @Override
         @SneakyThrows
         public long getDate(int col) {
-            Date date = statementHolder.getResultSet().getDate(col + 1);
-            return date != null ? date.getTime() : NULL.getLong(col);
+            return temporalColumns[col].getMillis(statementHolder.getResultSet(), col + 1);
         }
 
         @Override
@@ -176,6 +476,14 @@ public class JdbcFunctionFactory implements FunctionFactory {
         @Override
         @SneakyThrows
         public int getInt(int col) {
+            if (symbols[col] != null) {
+                // key is interned once per row however often the column is read
+                if (symbolRows[col] != rowNum) {
+                    symbolKeys[col] = symbols[col].intern(getStr(col));
+                    symbolRows[col] = rowNum;
+                }
+                return symbolKeys[col];
+            }
             int val = statementHolder.getResultSet().getInt(col + 1);
             if (statementHolder.getResultSet().wasNull()) {
                 return NULL.getInt(col);
@@ -206,24 +514,254 @@ public class JdbcFunctionFactory implements FunctionFactory {
         @Override
         @SneakyThrows
         public CharSequence getStr(int col) {
-            return statementHolder.getResultSet().getString(col + 1);
+            StrColumn column = strColumns[col];
+            if (column == null) {
+                return statementHolder.getResultSet().getString(col + 1);
+            }
+            return column.get(statementHolder, col + 1, rowNum, buffer);
+        }
+
+        @Override
+        @SneakyThrows
+        public CharSequence getStrB(int col) {
+            StrColumn column = strColumns[col];
+            if (column == null) {
+                return statementHolder.getResultSet().getString(col + 1);
+            }
+            return column.getB(statementHolder, col + 1, rowNum, buffer);
+        }
+
+        @Override
+        public int getStrLen(int col) {
+            CharSequence value = getStr(col);
+            return value != null ? value.length() : -1;
+        }
+
+        @Override
+        public CharSequence getSym(int col) {
+            return getStr(col);
         }
 
         @Override
         @SneakyThrows
         public long getTimestamp(int col) {
-            Timestamp timestamp = statementHolder.getResultSet().getTimestamp(col + 1);
-            return timestamp != null ? timestamp.getTime() : NULL.getLong(col);
+            return temporalColumns[col].getMicros(statementHolder.getResultSet(), col + 1);
         }
 
         @SneakyThrows
         boolean next() {
-            return statementHolder.getResultSet().next();
+            rowNum++;
+            return statementHolder.next();
         }
 
         @Override
         public void close() throws IOException {
+            for (BinColumn column : binColumns) {
+                if (column != null) {
+                    column.close();
+                }
+            }
             statementHolder.close();
         }
     }
+
+    /**
+     * Value of a string column for the current row, decoded from the driver at most once per row into a reusable
+     * sink. Long text is copied from the character stream instead of materializing a String. The second view
+     * has its own sink, copied from the first one when it is read.
+     */
+    private static class StrColumn {
+        private final StringSink sink = new StringSink();
+        private final StringSink sinkB = new StringSink();
+        private final boolean counted;
+        private boolean characterStream;
+        private long rowNum = -1;
+        private long rowNumB = -1;
+        private boolean isNull;
+
+        /**
+         * @param counted true to count decoded characters as fetched bytes, CHAR and SYMBOL values are counted
+         *                at their fixed size instead
+         */
+        StrColumn(boolean counted) {
+            this.counted = counted;
+        }
+
+        void of(boolean characterStream) {
+            this.characterStream = characterStream;
+            this.rowNum = -1;
+            this.rowNumB = -1;
+        }
+
+        CharSequence get(StatementHolder statementHolder, int columnIndex, long rowNum, char[] buffer) throws SQLException, IOException {
+            if (this.rowNum != rowNum) {
+                ResultSet resultSet = statementHolder.getResultSet();
+                sink.clear();
+                isNull = characterStream ? !read(resultSet.getCharacterStream(columnIndex), buffer) : !read(resultSet.getString(columnIndex));
+                this.rowNum = rowNum;
+                if (counted) {
+                    statementHolder.fetchedBytes((long) sink.length() * Character.BYTES);
+                }
+            }
+            return isNull ? null : sink;
+        }
+
+        CharSequence getB(StatementHolder statementHolder, int columnIndex, long rowNum, char[] buffer) throws SQLException, IOException {
+            if (get(statementHolder, columnIndex, rowNum, buffer) == null) {
+                return null;
+            }
+            if (rowNumB != rowNum) {
+                sinkB.clear();
+                sinkB.put(sink);
+                rowNumB = rowNum;
+            }
+            return sinkB;
+        }
+
+        private boolean read(String value) {
+            if (value == null) {
+                return false;
+            }
+            sink.put(value);
+            return true;
+        }
+
+        private boolean read(Reader reader, char[] buffer) throws IOException {
+            if (reader == null) {
+                return false;
+            }
+            try (Reader ignored = reader) {
+                int len;
+                while ((len = reader.read(buffer)) != -1) {
+                    for (int i = 0; i < len; i++) {
+                        sink.put(buffer[i]);
+                    }
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Value of a binary column for the current row, streamed from the driver at most once per row into native
+     * memory. The memory is reused by the following rows and only grows when a value doesn't fit.
+     * Length of a BLOB is taken from {@link Blob#length()} without reading the value.
+     */
+    private static class BinColumn implements BinarySequence, Closeable {
+        private static final long BYTE_ARRAY_OFFSET = Unsafe.getUnsafe().arrayBaseOffset(byte[].class);
+        private boolean blob;
+        private long rowNum = -1;
+        private Blob blobValue;
+        private boolean loaded;
+        private long address;
+        private long capacity;
+        private long size;
+
+        void of(boolean blob) {
+            this.blob = blob;
+            this.rowNum = -1;
+        }
+
+        BinarySequence get(StatementHolder statementHolder, int columnIndex, long rowNum, byte[] buffer) throws SQLException, IOException {
+            position(rowNum);
+            if (!loaded) {
+                load(statementHolder, columnIndex, buffer);
+            }
+            return size != -1 ? this : null;
+        }
+
+        long length(StatementHolder statementHolder, int columnIndex, long rowNum, byte[] buffer) throws SQLException, IOException {
+            position(rowNum);
+            if (!loaded) {
+                if (!blob) {
+                    load(statementHolder, columnIndex, buffer);
+                } else {
+                    if (blobValue == null) {
+                        blobValue = statementHolder.getResultSet().getBlob(columnIndex);
+                    }
+                    return blobValue != null ? blobValue.length() : -1;
+                }
+            }
+            return size;
+        }
+
+        private void position(long rowNum) throws SQLException {
+            if (this.rowNum != rowNum) {
+                this.rowNum = rowNum;
+                loaded = false;
+                if (blobValue != null) {
+                    Blob value = blobValue;
+                    blobValue = null;
+                    value.free();
+                }
+            }
+        }
+
+        private void load(StatementHolder statementHolder, int columnIndex, byte[] buffer) throws SQLException, IOException {
+            final ResultSet resultSet = statementHolder.getResultSet();
+            final InputStream stream;
+            if (blob) {
+                if (blobValue == null) {
+                    blobValue = resultSet.getBlob(columnIndex);
+                }
+                stream = blobValue != null ? blobValue.getBinaryStream() : null;
+            } else {
+                stream = resultSet.getBinaryStream(columnIndex);
+            }
+            loaded = true;
+            if (stream == null) {
+                size = -1;
+                return;
+            }
+            size = 0;
+            try (InputStream ignored = stream) {
+                int len;
+                while ((len = stream.read(buffer)) != -1) {
+                    ensureCapacity(size + len);
+                    Unsafe.getUnsafe().copyMemory(buffer, BYTE_ARRAY_OFFSET, null, address + size, len);
+                    size += len;
+                }
+            }
+            statementHolder.fetchedBytes(size);
+        }
+
+        private void ensureCapacity(long required) {
+            if (required <= capacity) {
+                return;
+            }
+            long newCapacity = Math.max(required, Math.max(capacity << 1, 4096));
+            address = address == 0 ? Unsafe.malloc(newCapacity) : Unsafe.realloc(address, capacity, newCapacity);
+            capacity = newCapacity;
+        }
+
+        @Override
+        public byte byteAt(long index) {
+            return Unsafe.getUnsafe().getByte(address + index);
+        }
+
+        @Override
+        public long length() {
+            return size;
+        }
+
+        @Override
+        public void close() {
+            if (address != 0) {
+                Unsafe.free(address, capacity);
+                address = 0;
+                capacity = 0;
+            }
+            rowNum = -1;
+            loaded = false;
+            if (blobValue != null) {
+                Blob value = blobValue;
+                blobValue = null;
+                try {
+                    value.free();
+                } catch (SQLException ignored) {
+                    // locator is released with its result set anyway
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,164 @@
+package io.questdb.griffin.engine.functions.jdbc;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.engine.functions.StrFunction;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.Numbers;
+import io.questdb.std.ObjList;
+import lombok.SneakyThrows;
+
+import java.sql.ResultSet;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code jdbc_lookup('pool', 'query', key)} returns the first column of the first row the query returns for
+ * the key bound as its only parameter, as STRING. Resolved values, including keys without a row, are kept
+ * in a {@link LookupCache} of {@code lookup_cache_size} entries that expire after {@code lookup_cache_ttl}
+ * of the pool, so the remote database is only queried once per distinct key. Misses reuse one connection and
+ * prepared statement, the connection goes back to the pool once no key was resolved for
+ * {@code questdb.jdbc.lookup.release.millis}.
+ * <p>
+ * INT and LONG keys use a cache with primitive keys, {@link JdbcLookupStrFunctionFactory} takes STRING and
+ * SYMBOL keys.
+ */
+public class JdbcLookupFunctionFactory implements FunctionFactory {
+    static final int DEFAULT_CACHE_SIZE = 10_000;
+    private static final Log LOG = LogFactory.getLog(JdbcLookupFunctionFactory.class);
+    private static final long RELEASE_DELAY = Long.getLong("questdb.jdbc.lookup.release.millis", 1_000L);
+
+    @Override
+    public String getSignature() {
+        return "jdbc_lookup(SSL)";
+    }
+
+    @Override
+    @SneakyThrows
+    public Function newInstance(ObjList<Function> args, int position, CairoConfiguration configuration) throws SqlException {
+        final CharSequence dataSourceName = args.getQuick(0).getStr(null);
+        final String query = String.valueOf(args.getQuick(1).getStr(null));
+        final Function key = args.getQuick(2);
+        JdbcPool pool = ConnectionFunctionFactory.getPool(String.valueOf(dataSourceName), args.getQuick(0).getPosition());
+        int cacheSize = pool.getLookupCacheSize() > 0 ? pool.getLookupCacheSize() : DEFAULT_CACHE_SIZE;
+        LookupFunction function = newFunction(position, key, pool, query, cacheSize, pool.getLookupCacheTtl());
+        try (StatementHolder statementHolder = function.statementHolder) {
+            if (statementHolder.describe().getColumnCount() == 0) {
+                throw SqlException.$(args.getQuick(1).getPosition(), "lookup query doesn't return a column");
+            }
+        }
+        return function;
+    }
+
+    LookupFunction newFunction(int position, Function key, JdbcPool pool, String query, int cacheSize, long cacheTtl) {
+        return new LongKeyFunction(position, key, pool, query, cacheSize, cacheTtl);
+    }
+
+    abstract static class LookupFunction extends StrFunction {
+        final Function key;
+        StatementHolder statementHolder;
+        // guarded by this, the release runs on the scheduler thread
+        private ScheduledFuture<?> release;
+        private long resolvedAt;
+
+        LookupFunction(int position, Function key) {
+            super(position);
+            this.key = key;
+        }
+
+        /**
+         * Runs the query for the key of the binder. Connection and statement are kept for the following misses
+         * until the lookup is idle for {@link #RELEASE_DELAY}.
+         *
+         * @return value of the first column or null when there is no row
+         */
+        @SneakyThrows
+        synchronized String resolve() {
+            resolvedAt = System.currentTimeMillis();
+            if (release == null) {
+                release = JdbcExecutors.SCHEDULER.schedule(this::releaseIdle, RELEASE_DELAY, TimeUnit.MILLISECONDS);
+            }
+            // failed execution closes the holder, the next miss borrows a connection again
+            ResultSet resultSet = statementHolder.executeFirst();
+            if (resultSet == null) {
+                return null;
+            }
+            String value = resultSet.getString(1);
+            if (value != null) {
+                statementHolder.fetchedBytes((long) value.length() * Character.BYTES);
+            }
+            return value;
+        }
+
+        private synchronized void releaseIdle() {
+            long idle = System.currentTimeMillis() - resolvedAt;
+            if (idle < RELEASE_DELAY) {
+                release = JdbcExecutors.SCHEDULER.schedule(this::releaseIdle, RELEASE_DELAY - idle, TimeUnit.MILLISECONDS);
+                return;
+            }
+            release = null;
+            try {
+                statementHolder.close();
+            } catch (Throwable e) {
+                LOG.error().$("could not release lookup connection [error=").$(e).$("]").$();
+            }
+        }
+
+        @Override
+        public CharSequence getStrB(Record rec) {
+            return getStr(rec);
+        }
+
+        @Override
+        @SneakyThrows
+        public synchronized void close() {
+            key.close();
+            if (release != null) {
+                release.cancel(false);
+                release = null;
+            }
+            statementHolder.close();
+        }
+    }
+
+    static class LongKeyFunction extends LookupFunction {
+        private final LookupCache.LongKeys cache;
+        private long boundKey;
+
+        LongKeyFunction(int position, Function key, JdbcPool pool, String query, int cacheSize, long cacheTtl) {
+            super(position, key);
+            this.cache = new LookupCache.LongKeys(cacheSize, cacheTtl);
+            this.statementHolder = new StatementHolder(pool, query, statement -> statement.setLong(1, boundKey));
+        }
+
+        private long getKey(Record rec) {
+            if (key.getType() == ColumnType.INT) {
+                int value = key.getInt(rec);
+                return value != Numbers.INT_NaN ? value : Numbers.LONG_NaN;
+            }
+            return key.getLong(rec);
+        }
+
+        @Override
+        public CharSequence getStr(Record rec) {
+            long value = getKey(rec);
+            if (value == Numbers.LONG_NaN) {
+                return null;
+            }
+            long now = System.currentTimeMillis();
+            int entry = cache.indexOf(value, now);
+            if (entry != LookupCache.LongKeys.NO_ENTRY) {
+                return cache.valueAt(entry);
+            }
+            boundKey = value;
+            String resolved = resolve();
+            cache.put(value, resolved, now);
+            return resolved;
+        }
+    }
+}
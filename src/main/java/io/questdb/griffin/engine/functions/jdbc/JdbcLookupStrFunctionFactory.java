@@ -0,0 +1,50 @@
+package io.questdb.griffin.engine.functions.jdbc;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+
+/**
+ * {@code jdbc_lookup('pool', 'query', key)} over STRING and SYMBOL keys, see {@link JdbcLookupFunctionFactory}.
+ */
+public class JdbcLookupStrFunctionFactory extends JdbcLookupFunctionFactory {
+    @Override
+    public String getSignature() {
+        return "jdbc_lookup(SSS)";
+    }
+
+    @Override
+    LookupFunction newFunction(int position, Function key, JdbcPool pool, String query, int cacheSize, long cacheTtl) {
+        return new StrKeyFunction(position, key, pool, query, cacheSize, cacheTtl);
+    }
+
+    static class StrKeyFunction extends LookupFunction {
+        private final LookupCache.StrKeys cache;
+        private String boundKey;
+
+        StrKeyFunction(int position, Function key, JdbcPool pool, String query, int cacheSize, long cacheTtl) {
+            super(position, key);
+            this.cache = new LookupCache.StrKeys(cacheSize, cacheTtl);
+            this.statementHolder = new StatementHolder(pool, query, statement -> statement.setString(1, boundKey));
+        }
+
+        @Override
+        public CharSequence getStr(Record rec) {
+            CharSequence value = key.getType() == ColumnType.SYMBOL ? key.getSymbol(rec) : key.getStr(rec);
+            if (value == null) {
+                return null;
+            }
+            long now = System.currentTimeMillis();
+            LookupCache.StrKeys.Entry entry = cache.get(value, now);
+            if (entry != null) {
+                return entry.value;
+            }
+            // key is copied only when it is cached
+            String lookupKey = value.toString();
+            boundKey = lookupKey;
+            String resolved = resolve();
+            cache.put(lookupKey, resolved, now);
+            return resolved;
+        }
+    }
+}
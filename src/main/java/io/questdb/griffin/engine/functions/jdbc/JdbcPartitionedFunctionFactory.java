@@ -0,0 +1,118 @@
+package io.questdb.griffin.engine.functions.jdbc;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.GenericRecordMetadata;
+import io.questdb.cairo.sql.Function;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.engine.functions.CursorFunction;
+import io.questdb.griffin.engine.functions.GenericRecordCursorFactory;
+import io.questdb.std.ObjList;
+import lombok.SneakyThrows;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * {@code jdbc_partitioned('pool', 'query', 'column', lo, hi, partitions)} splits the query into range predicates
+ * over a numeric column and reads all of them at the same time, each on its own pooled connection.
+ * Rows below {@code lo}, above {@code hi} or with null in the column go to the first and the last partitions,
+ * neither has an outer bound.
+ */
+public class JdbcPartitionedFunctionFactory implements FunctionFactory {
+    static final int DEFAULT_BATCH_SIZE = 1024;
+    static final int QUEUE_DEPTH = 2;
+
+    @Override
+    public String getSignature() {
+        return "jdbc_partitioned(SSSLLI)";
+    }
+
+    @Override
+    @SneakyThrows
+    public Function newInstance(ObjList<Function> args, int position, CairoConfiguration configuration) throws SqlException {
+        final CharSequence dataSourceName = args.getQuick(0).getStr(null);
+        final String query = String.valueOf(args.getQuick(1).getStr(null));
+        final String column = String.valueOf(args.getQuick(2).getStr(null));
+        final long lo = getBound(args.getQuick(3));
+        final long hi = getBound(args.getQuick(4));
+        final int partitions = args.getQuick(5).getInt(null);
+        if (hi < lo) {
+            throw SqlException.$(args.getQuick(4).getPosition(), "upper bound is less than lower bound");
+        }
+        JdbcPool pool = ConnectionFunctionFactory.getPool(String.valueOf(dataSourceName), args.getQuick(0).getPosition());
+        if (partitions < 1 || partitions > pool.getDataSource().getMaximumPoolSize()) {
+            throw SqlException.$(args.getQuick(5).getPosition(), "partition count must be between 1 and max_pool_size ")
+                    .put(pool.getDataSource().getMaximumPoolSize());
+        }
+
+        final GenericRecordMetadata metadata;
+        try (StatementHolder statementHolder = new StatementHolder(pool, query)) {
+            metadata = JdbcFunctionFactory.getMetadata(pool, query, statementHolder);
+        }
+        final int columnIndex = metadata.getColumnIndexQuiet(column);
+        if (columnIndex == -1) {
+            throw SqlException.invalidColumn(args.getQuick(2).getPosition(), column);
+        }
+        // name as the remote database reported it, the argument may differ in case
+        final String quotedColumn = partitions > 1 ? pool.getIdentifiers().quoteExact(metadata.getColumnName(columnIndex)) : null;
+
+        ObjList<StatementHolder> statementHolders = new ObjList<>(partitions);
+        for (int i = 0; i < partitions; i++) {
+            statementHolders.add(newPartition(pool, query, quotedColumn, i, partitions,
+                    boundary(lo, hi, i, partitions), boundary(lo, hi, i + 1, partitions)));
+        }
+        int batchSize = pool.getBatchSize() > 0 ? pool.getBatchSize() : DEFAULT_BATCH_SIZE;
+        return new CursorFunction(
+                position,
+                new GenericRecordCursorFactory(metadata,
+                        new AsyncRecordCursor(statementHolders, metadata, batchSize, QUEUE_DEPTH), false)
+        );
+    }
+
+    /**
+     * @return lower bound of the partition, {@code lo + (hi - lo) * partition / partitions} rounded down
+     */
+    static long boundary(long lo, long hi, int partition, int partitions) {
+        // hi - lo doesn't fit a signed long for bounds of opposite signs, it always fits an unsigned one
+        long width = hi - lo;
+        long offset = Long.divideUnsigned(width, partitions) * partition
+                + Long.remainderUnsigned(width, partitions) * partition / partitions;
+        return lo + offset;
+    }
+
+    long getBound(Function arg) {
+        return arg.getLong(null);
+    }
+
+    /**
+     * @param codec binds temporal bounds in the time zone of the pool, a partition owns its codec
+     */
+    void bind(PreparedStatement statement, int parameterIndex, long value, TemporalCodec codec) throws SQLException {
+        statement.setLong(parameterIndex, value);
+    }
+
+    private StatementHolder newPartition(JdbcPool pool, String query, String column, int partition, int partitions, long from, long to) {
+        if (partitions == 1) {
+            return new StatementHolder(pool, query);
+        }
+        String subQuery = "select * from (" + query + ") q where ";
+        TemporalCodec codec = new TemporalCodec(pool.getTimeZone());
+        if (partition == 0) {
+            return new StatementHolder(pool,
+                    subQuery + column + " < ? or " + column + " is null",
+                    statement -> bind(statement, 1, to, codec));
+        }
+        if (partition == partitions - 1) {
+            return new StatementHolder(pool,
+                    subQuery + column + " >= ?",
+                    statement -> bind(statement, 1, from, codec));
+        }
+        return new StatementHolder(pool,
+                subQuery + column + " >= ? and " + column + " < ?",
+                statement -> {
+                    bind(statement, 1, from, codec);
+                    bind(statement, 2, to, codec);
+                });
+    }
+}
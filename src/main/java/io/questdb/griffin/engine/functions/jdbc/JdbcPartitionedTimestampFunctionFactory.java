@@ -0,0 +1,27 @@
+package io.questdb.griffin.engine.functions.jdbc;
+
+import io.questdb.cairo.sql.Function;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * {@code jdbc_partitioned('pool', 'query', 'column', lo, hi, partitions)} over a remote timestamp column,
+ * bounds are QuestDB timestamps in microseconds.
+ */
+public class JdbcPartitionedTimestampFunctionFactory extends JdbcPartitionedFunctionFactory {
+    @Override
+    public String getSignature() {
+        return "jdbc_partitioned(SSSNNI)";
+    }
+
+    @Override
+    long getBound(Function arg) {
+        return arg.getTimestamp(null);
+    }
+
+    @Override
+    void bind(PreparedStatement statement, int parameterIndex, long value, TemporalCodec codec) throws SQLException {
+        codec.setMicros(statement, parameterIndex, value);
+    }
+}
@@ -0,0 +1,243 @@
+package io.questdb.griffin.engine.functions.jdbc;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.ZoneId;
+
+/**
+ * Named connection pool registered by {@code jdbc_pool_init} together with the settings
+ * that control how {@code jdbc()} reads from it. The data source can be replaced while queries run,
+ * statements borrow connections from the current one.
+ */
+@Getter
+@Setter
+class JdbcPool implements Closeable {
+    private static final Log LOG = LogFactory.getLog(JdbcPool.class);
+    /**
+     * How long a retired data source waits for borrowed connections before it's closed anyway.
+     */
+    private static final long DRAIN_TIMEOUT = Long.getLong("questdb.jdbc.pool.drain.millis", 30_000L);
+    private static final long DRAIN_POLL_INTERVAL = 100;
+    private final String name;
+    @Setter(AccessLevel.NONE)
+    private volatile HikariDataSource dataSource;
+    /**
+     * Settings the data source can't change once started, see {@link #swap(HikariDataSource, String)}.
+     */
+    @Setter(AccessLevel.NONE)
+    private volatile String connectionKey;
+    /**
+     * Number of rows prefetched into a columnar {@link RecordBatch} per driver round, 0 reads row by row.
+     */
+    private int batchSize;
+    /**
+     * How long resolved result set metadata of a query stays in {@link MetadataCache}, 0 disables caching.
+     */
+    private long metadataTtl;
+    /**
+     * Number of batches a background reader may fetch ahead of the query, 0 reads on the query thread.
+     */
+    private int prefetchDepth;
+    /**
+     * Rows the driver fetches per network round trip, 0 leaves the driver default.
+     */
+    private int fetchSize;
+    /**
+     * Applies driver specific settings, so rows are streamed instead of the whole result being buffered.
+     */
+    private boolean streaming;
+    /**
+     * Seconds a remote query may run before the driver cancels it, 0 means no limit.
+     */
+    private int queryTimeout;
+    /**
+     * Upper limit of rows the remote database returns per query, 0 means no limit. Results cut off at the limit
+     * are logged and counted in {@code jdbc_stats()}.
+     */
+    private long maxRows;
+    /**
+     * Prepared statements kept open per pooled connection, 0 closes statements after each query.
+     */
+    private int statementCacheSize;
+    /**
+     * How long a result materialized by {@code jdbc_cached()} is served from {@link ResultCache},
+     * 0 keeps it until evicted.
+     */
+    private long resultCacheTtl;
+    /**
+     * Reads the whole result into memory on first access, so {@code jdbc()} supports random access
+     * and rewinding the cursor doesn't run the query again.
+     */
+    private boolean materialize;
+    /**
+     * Bytes a result read into memory by {@code materialize} or {@code jdbc_cached()} may take,
+     * 0 uses the default, see {@link RecordSpool#memoryLimit(JdbcPool)}.
+     */
+    private long spoolMemoryLimit;
+    /**
+     * Comma separated names of text columns read as SYMBOL, null for none.
+     */
+    private String symbolColumns;
+    /**
+     * Rows sampled when a query is first compiled to read low cardinality text columns as SYMBOL, 0 (the default)
+     * disables sampling. The sample query runs on the remote database at compile time, so it is opt-in.
+     */
+    private int symbolSampleRows;
+    /**
+     * Zone of remote DATE, TIME and TIMESTAMP values without offset, the JVM default unless {@code timezone} is set.
+     */
+    private ZoneId timeZone = ZoneId.systemDefault();
+    /**
+     * Keys each {@code jdbc_lookup()} keeps resolved values of, 0 uses the default.
+     */
+    private int lookupCacheSize;
+    /**
+     * How long a value resolved by {@code jdbc_lookup()} is served from its cache, 0 keeps it until evicted.
+     */
+    private long lookupCacheTtl;
+    /**
+     * Rows {@code jdbc_export()} sends per {@code executeBatch()}, 0 uses the default.
+     */
+    private int exportBatchSize;
+    /**
+     * Rows each export connection writes per transaction, 0 commits once at the end.
+     */
+    private long exportCommitSize;
+    /**
+     * Rewrites the batch into multi-row {@code INSERT ... VALUES (...), (...)} statements.
+     */
+    private boolean exportMultiRow;
+    /**
+     * Connections {@code jdbc_export()} writes through in parallel, 0 uses one.
+     */
+    private int exportWriters;
+    /**
+     * Quoting rules of the remote database, read from a connection of the current data source when first needed.
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile Identifiers identifiers;
+
+    JdbcPool(String name, HikariDataSource dataSource, String connectionKey) {
+        this.name = name;
+        this.dataSource = dataSource;
+        this.connectionKey = connectionKey;
+    }
+
+    /**
+     * @return connection of the current data source
+     */
+    Connection getConnection() throws SQLException {
+        return dataSource.getConnection();
+    }
+
+    /**
+     * @return quoting of identifiers put into generated remote SQL
+     */
+    Identifiers getIdentifiers() throws SQLException {
+        Identifiers identifiers = this.identifiers;
+        if (identifiers == null) {
+            try (Connection connection = getConnection()) {
+                this.identifiers = identifiers = Identifiers.of(connection);
+            }
+        }
+        return identifiers;
+    }
+
+    /**
+     * @return settings of the configuration that need a new data source when changed
+     */
+    static String connectionKey(HikariConfig configuration) {
+        return String.join("\u0000", configuration.getJdbcUrl(), configuration.getUsername(),
+                configuration.getPassword(), configuration.getDriverClassName(), configuration.getSchema(),
+                configuration.getCatalog(), configuration.getTransactionIsolation(),
+                String.valueOf(configuration.isAutoCommit()), String.valueOf(configuration.isReadOnly()),
+                String.valueOf(configuration.isRegisterMbeans()));
+    }
+
+    /**
+     * Replaces the data source. Connections borrowed from the previous one are returned to it
+     * and it's closed once they are all back.
+     */
+    synchronized void swap(HikariDataSource dataSource, String connectionKey) {
+        HikariDataSource previous = this.dataSource;
+        this.dataSource = dataSource;
+        this.connectionKey = connectionKey;
+        this.identifiers = null;
+        retire(previous);
+    }
+
+    /**
+     * Applies sizes and timeouts of the configuration to the running data source.
+     */
+    synchronized void reconfigure(HikariConfig configuration) {
+        // fills in defaults of the settings that weren't set
+        configuration.validate();
+        HikariConfigMXBean running = dataSource.getHikariConfigMXBean();
+        running.setConnectionTimeout(configuration.getConnectionTimeout());
+        running.setIdleTimeout(configuration.getIdleTimeout());
+        running.setMaxLifetime(configuration.getMaxLifetime());
+        running.setValidationTimeout(configuration.getValidationTimeout());
+        resize(configuration.getMaximumPoolSize(), configuration.getMinimumIdle());
+    }
+
+    /**
+     * Changes size of the running pool, connections are added or retired by the pool in the background.
+     */
+    synchronized void resize(int maximumPoolSize, int minimumIdle) {
+        HikariConfigMXBean configuration = dataSource.getHikariConfigMXBean();
+        if (minimumIdle > configuration.getMaximumPoolSize()) {
+            configuration.setMaximumPoolSize(maximumPoolSize);
+            configuration.setMinimumIdle(minimumIdle);
+        } else {
+            configuration.setMinimumIdle(minimumIdle);
+            configuration.setMaximumPoolSize(maximumPoolSize);
+        }
+    }
+
+    /**
+     * Closes the data source once borrowed connections are returned, used when the pool is unregistered.
+     */
+    void drain() {
+        retire(dataSource);
+    }
+
+    private void retire(HikariDataSource dataSource) {
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        if (pool == null) {
+            dataSource.close();
+            return;
+        }
+        // idle connections are closed now, borrowed ones as soon as they are returned
+        pool.softEvictConnections();
+        JdbcExecutors.READERS.execute(() -> {
+            final long deadline = System.currentTimeMillis() + DRAIN_TIMEOUT;
+            try {
+                while (pool.getActiveConnections() > 0 && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(DRAIN_POLL_INTERVAL);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            int active = pool.getActiveConnections();
+            dataSource.close();
+            LOG.info().$("retired data source [pool=").$(name).$(", aborted=").$(active).$("]").$();
+        });
+    }
+
+    @Override
+    public void close() {
+        dataSource.close();
+    }
+}
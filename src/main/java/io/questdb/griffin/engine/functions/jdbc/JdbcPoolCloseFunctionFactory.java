@@ -0,0 +1,26 @@
+package io.questdb.griffin.engine.functions.jdbc;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.sql.Function;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.engine.functions.constants.NullStrConstant;
+import io.questdb.std.ObjList;
+
+/**
+ * {@code jdbc_pool_close('pool')} unregisters the pool and drops its cached metadata and results. Running queries
+ * finish, the connections are closed as they are returned.
+ */
+public class JdbcPoolCloseFunctionFactory implements FunctionFactory {
+    @Override
+    public String getSignature() {
+        return "jdbc_pool_close(S)";
+    }
+
+    @Override
+    public Function newInstance(ObjList<Function> args, int position, CairoConfiguration configuration) throws SqlException {
+        final CharSequence dataSourceName = args.getQuick(0).getStr(null);
+        ConnectionFunctionFactory.closePool(String.valueOf(dataSourceName), args.getQuick(0).getPosition());
+        return new NullStrConstant(position);
+    }
+}
@@ -0,0 +1,54 @@
+package io.questdb.griffin.engine.functions.jdbc;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.sql.Function;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.engine.functions.constants.NullStrConstant;
+import io.questdb.std.ObjList;
+
+import java.util.Locale;
+
+/**
+ * {@code jdbc_pool_group('group', 'pool1,pool2', 'policy')} registers a {@link PoolGroup} usable everywhere
+ * a pool name is. Policy is {@code round_robin}, {@code least_active} (fewest borrowed connections) or
+ * {@code latency} (random, weighted by inverse probe latency). Defining a group again replaces it.
+ */
+public class JdbcPoolGroupFunctionFactory implements FunctionFactory {
+    @Override
+    public String getSignature() {
+        return "jdbc_pool_group(SSS)";
+    }
+
+    @Override
+    public Function newInstance(ObjList<Function> args, int position, CairoConfiguration configuration) throws SqlException {
+        final String groupName = String.valueOf(args.getQuick(0).getStr(null));
+        final String memberList = String.valueOf(args.getQuick(1).getStr(null));
+        final String policyName = String.valueOf(args.getQuick(2).getStr(null));
+        final PoolGroup.Policy policy;
+        try {
+            policy = PoolGroup.Policy.valueOf(policyName.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw SqlException.$(args.getQuick(2).getPosition(), "unknown routing policy ").put(policyName)
+                    .put(", expected round_robin, least_active or latency");
+        }
+        JdbcPool existing = ConnectionFunctionFactory.findPool(groupName);
+        if (existing != null && !(existing instanceof PoolGroup)) {
+            throw SqlException.$(args.getQuick(0).getPosition(), "pool ").put(groupName).put(" already exists");
+        }
+        String[] members = memberList.split(",");
+        JdbcPool first = null;
+        for (int i = 0; i < members.length; i++) {
+            members[i] = members[i].trim();
+            JdbcPool member = ConnectionFunctionFactory.findPool(members[i]);
+            if (member == null || member instanceof PoolGroup) {
+                throw SqlException.$(args.getQuick(1).getPosition(), "pool ").put(members[i]).put(" not found");
+            }
+            if (first == null) {
+                first = member;
+            }
+        }
+        ConnectionFunctionFactory.putGroup(new PoolGroup(groupName, members, policy, first));
+        return new NullStrConstant(position);
+    }
+}
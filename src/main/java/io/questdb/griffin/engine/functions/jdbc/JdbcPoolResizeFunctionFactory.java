@@ -0,0 +1,34 @@
+package io.questdb.griffin.engine.functions.jdbc;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.sql.Function;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.engine.functions.constants.NullStrConstant;
+import io.questdb.std.ObjList;
+
+/**
+ * {@code jdbc_pool_resize('pool', maxPoolSize, minimumIdle)} changes size of a running pool without closing
+ * its connections.
+ */
+public class JdbcPoolResizeFunctionFactory implements FunctionFactory {
+    @Override
+    public String getSignature() {
+        return "jdbc_pool_resize(SII)";
+    }
+
+    @Override
+    public Function newInstance(ObjList<Function> args, int position, CairoConfiguration configuration) throws SqlException {
+        final CharSequence dataSourceName = args.getQuick(0).getStr(null);
+        final int maximumPoolSize = args.getQuick(1).getInt(null);
+        final int minimumIdle = args.getQuick(2).getInt(null);
+        if (maximumPoolSize < 1) {
+            throw SqlException.$(args.getQuick(1).getPosition(), "max pool size must be positive");
+        }
+        if (minimumIdle < 0 || minimumIdle > maximumPoolSize) {
+            throw SqlException.$(args.getQuick(2).getPosition(), "minimum idle must be between 0 and max pool size");
+        }
+        ConnectionFunctionFactory.getPool(String.valueOf(dataSourceName), args.getQuick(0).getPosition()).resize(maximumPoolSize, minimumIdle);
+        return new NullStrConstant(position);
+    }
+}
@@ -0,0 +1,77 @@
+package io.questdb.griffin.engine.functions.jdbc;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.GenericRecordMetadata;
+import io.questdb.cairo.TableColumnMetadata;
+import io.questdb.cairo.sql.Function;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.engine.functions.CursorFunction;
+import io.questdb.griffin.engine.functions.GenericRecordCursorFactory;
+import io.questdb.std.ObjList;
+
+/**
+ * {@code jdbc_pools()} lists registered pools, except of groups, with connection counts of their data sources.
+ * {@code waiting} is the number of threads waiting for a connection, {@code ready} is set once the pool opened
+ * its {@code minimum_idle} connections.
+ */
+public class JdbcPoolsFunctionFactory implements FunctionFactory {
+    private static final GenericRecordMetadata METADATA = new GenericRecordMetadata();
+
+    static {
+        METADATA.add(new TableColumnMetadata("name", ColumnType.STRING));
+        METADATA.add(new TableColumnMetadata("url", ColumnType.STRING));
+        METADATA.add(new TableColumnMetadata("active", ColumnType.LONG));
+        METADATA.add(new TableColumnMetadata("idle", ColumnType.LONG));
+        METADATA.add(new TableColumnMetadata("waiting", ColumnType.LONG));
+        METADATA.add(new TableColumnMetadata("total", ColumnType.LONG));
+        METADATA.add(new TableColumnMetadata("max_pool_size", ColumnType.LONG));
+        METADATA.add(new TableColumnMetadata("minimum_idle", ColumnType.LONG));
+        METADATA.add(new TableColumnMetadata("ready", ColumnType.BOOLEAN));
+    }
+
+    @Override
+    public String getSignature() {
+        return "jdbc_pools()";
+    }
+
+    @Override
+    public Function newInstance(ObjList<Function> args, int position, CairoConfiguration configuration) {
+        return new CursorFunction(
+                position,
+                new GenericRecordCursorFactory(METADATA, new PoolsCursor(), false)
+        );
+    }
+
+    static class PoolsCursor extends SnapshotRecordCursor {
+        PoolsCursor() {
+            super(METADATA, 2);
+        }
+
+        @Override
+        void snapshot() {
+            for (JdbcPool pool : ConnectionFunctionFactory.getPools()) {
+                if (pool instanceof PoolGroup) {
+                    continue;
+                }
+                HikariDataSource dataSource = pool.getDataSource();
+                HikariPoolMXBean mxBean = dataSource.getHikariPoolMXBean();
+                if (mxBean == null) {
+                    // closed while the snapshot was taken
+                    continue;
+                }
+                add(new String[]{pool.getName(), dataSource.getJdbcUrl()}, new long[]{
+                        mxBean.getActiveConnections(),
+                        mxBean.getIdleConnections(),
+                        mxBean.getThreadsAwaitingConnection(),
+                        mxBean.getTotalConnections(),
+                        dataSource.getMaximumPoolSize(),
+                        dataSource.getMinimumIdle(),
+                        PoolConfig.isWarm(pool) ? 1 : 0
+                });
+            }
+        }
+    }
+}
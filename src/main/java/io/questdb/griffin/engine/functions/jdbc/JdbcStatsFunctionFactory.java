@@ -0,0 +1,100 @@
+package io.questdb.griffin.engine.functions.jdbc;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.GenericRecordMetadata;
+import io.questdb.cairo.TableColumnMetadata;
+import io.questdb.cairo.sql.Function;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.engine.functions.CursorFunction;
+import io.questdb.griffin.engine.functions.GenericRecordCursorFactory;
+import io.questdb.std.ObjList;
+
+/**
+ * {@code jdbc_stats()} lists {@link QueryStats} of every pool and query fingerprint. Latencies are in microseconds:
+ * {@code acquire} is the wait for a pooled connection, {@code execute} the time until {@code executeQuery()}
+ * returns, {@code first_row} until the first row is fetched and {@code hold} how long the connection was kept out of
+ * the pool. {@code decode_us} is estimated from sampled rows
+ * of batched reads, see {@code jdbc_decode_stats()} for the breakdown per column type.
+ */
+public class JdbcStatsFunctionFactory implements FunctionFactory {
+    private static final GenericRecordMetadata METADATA = new GenericRecordMetadata();
+
+    static {
+        METADATA.add(new TableColumnMetadata("pool", ColumnType.STRING));
+        METADATA.add(new TableColumnMetadata("query", ColumnType.STRING));
+        METADATA.add(new TableColumnMetadata("executions", ColumnType.LONG));
+        METADATA.add(new TableColumnMetadata("errors", ColumnType.LONG));
+        METADATA.add(new TableColumnMetadata("cancellations", ColumnType.LONG));
+        METADATA.add(new TableColumnMetadata("truncations", ColumnType.LONG));
+        METADATA.add(new TableColumnMetadata("rows", ColumnType.LONG));
+        METADATA.add(new TableColumnMetadata("bytes", ColumnType.LONG));
+        METADATA.add(new TableColumnMetadata("acquire_p50_us", ColumnType.LONG));
+        METADATA.add(new TableColumnMetadata("acquire_p99_us", ColumnType.LONG));
+        METADATA.add(new TableColumnMetadata("acquire_max_us", ColumnType.LONG));
+        METADATA.add(new TableColumnMetadata("execute_p50_us", ColumnType.LONG));
+        METADATA.add(new TableColumnMetadata("execute_p99_us", ColumnType.LONG));
+        METADATA.add(new TableColumnMetadata("execute_max_us", ColumnType.LONG));
+        METADATA.add(new TableColumnMetadata("first_row_p50_us", ColumnType.LONG));
+        METADATA.add(new TableColumnMetadata("first_row_p99_us", ColumnType.LONG));
+        METADATA.add(new TableColumnMetadata("first_row_max_us", ColumnType.LONG));
+        METADATA.add(new TableColumnMetadata("hold_p50_us", ColumnType.LONG));
+        METADATA.add(new TableColumnMetadata("hold_p99_us", ColumnType.LONG));
+        METADATA.add(new TableColumnMetadata("hold_max_us", ColumnType.LONG));
+        METADATA.add(new TableColumnMetadata("decode_us", ColumnType.LONG));
+    }
+
+    @Override
+    public String getSignature() {
+        return "jdbc_stats()";
+    }
+
+    @Override
+    public Function newInstance(ObjList<Function> args, int position, CairoConfiguration configuration) {
+        return new CursorFunction(
+                position,
+                new GenericRecordCursorFactory(METADATA, new StatsCursor(), false)
+        );
+    }
+
+    private static long micros(long nanos) {
+        return nanos / 1000;
+    }
+
+    static class StatsCursor extends SnapshotRecordCursor {
+        StatsCursor() {
+            super(METADATA, 2);
+        }
+
+        @Override
+        void snapshot() {
+            for (QueryStats stats : QueryStats.snapshot()) {
+                long decodeNanos = 0;
+                for (int type = 0; type < stats.getDecodeNanos().length; type++) {
+                    decodeNanos += stats.getDecodeNanos()[type].sum();
+                }
+                add(new String[]{stats.getPoolName(), stats.getFingerprint()}, new long[]{
+                        stats.getExecutions().sum(),
+                        stats.getErrors().sum(),
+                        stats.getCancellations().sum(),
+                        stats.getTruncations().sum(),
+                        stats.getRows().sum(),
+                        stats.getBytes().sum(),
+                        micros(stats.getAcquire().getPercentile(0.5)),
+                        micros(stats.getAcquire().getPercentile(0.99)),
+                        micros(stats.getAcquire().getMax()),
+                        micros(stats.getExecute().getPercentile(0.5)),
+                        micros(stats.getExecute().getPercentile(0.99)),
+                        micros(stats.getExecute().getMax()),
+                        micros(stats.getFirstRow().getPercentile(0.5)),
+                        micros(stats.getFirstRow().getPercentile(0.99)),
+                        micros(stats.getFirstRow().getMax()),
+                        micros(stats.getHold().getPercentile(0.5)),
+                        micros(stats.getHold().getPercentile(0.99)),
+                        micros(stats.getHold().getMax()),
+                        micros(decodeNanos)
+                });
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package io.questdb.griffin.engine.functions.jdbc;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.GenericRecordMetadata;
+import io.questdb.cairo.TableColumnMetadata;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.NoRandomAccessRecordCursor;
+import io.questdb.cairo.sql.Record;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.engine.functions.CursorFunction;
+import io.questdb.griffin.engine.functions.GenericRecordCursorFactory;
+import io.questdb.std.ObjList;
+import lombok.SneakyThrows;
+
+/**
+ * {@code jdbc_sync('pool', 'query', 'column', 'table')} copies rows of the query past the stored high-water mark
+ * of {@code column} into the table, see {@link IncrementalSync}. The cursor returns one row with the number of
+ * copied rows and the new high-water mark.
+ */
+public class JdbcSyncFunctionFactory implements FunctionFactory {
+    private static final GenericRecordMetadata REPORT_METADATA = new GenericRecordMetadata();
+    private static final int REPORT_ROWS = 0;
+    private static final int REPORT_WATERMARK = 1;
+    private static final int REPORT_ELAPSED = 2;
+
+    static {
+        REPORT_METADATA.add(new TableColumnMetadata("rows", ColumnType.LONG));
+        REPORT_METADATA.add(new TableColumnMetadata("watermark", ColumnType.LONG));
+        REPORT_METADATA.add(new TableColumnMetadata("elapsed_ms", ColumnType.LONG));
+    }
+
+    @Override
+    public String getSignature() {
+        return "jdbc_sync(SSSS)";
+    }
+
+    @Override
+    @SneakyThrows
+    public Function newInstance(ObjList<Function> args, int position, CairoConfiguration configuration) throws SqlException {
+        IncrementalSync sync = newSync(args);
+        return new CursorFunction(
+                position,
+                new GenericRecordCursorFactory(REPORT_METADATA, new SyncCursor(sync), false)
+        );
+    }
+
+    static IncrementalSync newSync(ObjList<Function> args) throws Exception {
+        final CharSequence dataSourceName = args.getQuick(0).getStr(null);
+        final String query = String.valueOf(args.getQuick(1).getStr(null));
+        final String column = String.valueOf(args.getQuick(2).getStr(null));
+        final String tableName = String.valueOf(args.getQuick(3).getStr(null));
+        JdbcPool pool = ConnectionFunctionFactory.getPool(String.valueOf(dataSourceName), args.getQuick(0).getPosition());
+        return new IncrementalSync(ConnectionFunctionFactory.getEngine(), pool, query, column, tableName,
+                args.getQuick(2).getPosition(), args.getQuick(3).getPosition());
+    }
+
+    static class SyncCursor implements NoRandomAccessRecordCursor {
+        private final IncrementalSync sync;
+        private final long[] report = new long[REPORT_METADATA.getColumnCount()];
+        private final Record record = new Record() {
+            @Override
+            public long getLong(int col) {
+                return report[col];
+            }
+        };
+        private boolean hasNext;
+        private boolean done;
+
+        SyncCursor(IncrementalSync sync) {
+            this.sync = sync;
+        }
+
+        @Override
+        public void close() {
+            done = false;
+        }
+
+        @Override
+        public Record getRecord() {
+            return record;
+        }
+
+        @Override
+        public boolean hasNext() {
+            boolean result = hasNext;
+            hasNext = false;
+            return result;
+        }
+
+        @Override
+        @SneakyThrows
+        public void toTop() {
+            // sync runs once per execution, rewinding the open cursor only returns the report again
+            if (!done) {
+                report[REPORT_WATERMARK] = sync.run();
+                report[REPORT_ROWS] = sync.getCopy().getRows();
+                report[REPORT_ELAPSED] = sync.getCopy().getElapsed();
+                done = true;
+            }
+            hasNext = true;
+        }
+
+        @Override
+        public long size() {
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package io.questdb.griffin.engine.functions.jdbc;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.engine.functions.StrFunction;
+import io.questdb.std.ObjList;
+import lombok.SneakyThrows;
+
+/**
+ * {@code jdbc_sync_schedule('pool', 'query', 'column', 'table', intervalMillis)} runs {@code jdbc_sync()} of the table
+ * in the background every {@code intervalMillis} after the previous run finishes. It replaces an earlier schedule
+ * of the same table, interval 0 only cancels it. The schedule changes when the query runs, not when it's compiled.
+ */
+public class JdbcSyncScheduleFunctionFactory implements FunctionFactory {
+    @Override
+    public String getSignature() {
+        return "jdbc_sync_schedule(SSSSL)";
+    }
+
+    @Override
+    @SneakyThrows
+    public Function newInstance(ObjList<Function> args, int position, CairoConfiguration configuration) throws SqlException {
+        final long intervalMillis = args.getQuick(4).getLong(null);
+        if (intervalMillis < 0) {
+            throw SqlException.$(args.getQuick(4).getPosition(), "interval must not be negative");
+        }
+        final String tableName = String.valueOf(args.getQuick(3).getStr(null));
+        // validated now, the schedule changes only when the query runs
+        final IncrementalSync sync = intervalMillis > 0 ? JdbcSyncFunctionFactory.newSync(args) : null;
+        return new ScheduleFunction(position, tableName, sync, intervalMillis);
+    }
+
+    static class ScheduleFunction extends StrFunction {
+        private final String tableName;
+        private final IncrementalSync sync;
+        private final long intervalMillis;
+
+        ScheduleFunction(int position, String tableName, IncrementalSync sync, long intervalMillis) {
+            super(position);
+            this.tableName = tableName;
+            this.sync = sync;
+            this.intervalMillis = intervalMillis;
+        }
+
+        @Override
+        public CharSequence getStr(Record rec) {
+            if (sync == null) {
+                SyncScheduler.INSTANCE.cancel(tableName);
+            } else {
+                SyncScheduler.INSTANCE.schedule(sync, intervalMillis);
+            }
+            return null;
+        }
+
+        @Override
+        public CharSequence getStrB(Record rec) {
+            return getStr(rec);
+        }
+    }
+}
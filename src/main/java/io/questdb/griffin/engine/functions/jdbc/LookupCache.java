@@ -0,0 +1,269 @@
+package io.questdb.griffin.engine.functions.jdbc;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded least recently used cache of values resolved by {@code jdbc_lookup()}. Keys the remote query found
+ * no row for are cached as null, so they aren't looked up again. Entries expire {@code ttlMillis} after they
+ * were loaded, 0 keeps them until evicted.
+ * <p>
+ * Caches aren't thread safe, every lookup function owns its cache.
+ */
+abstract class LookupCache {
+    final int capacity;
+    final long ttlMillis;
+
+    LookupCache(int capacity, long ttlMillis) {
+        this.capacity = capacity;
+        this.ttlMillis = ttlMillis;
+    }
+
+    boolean isExpired(long loadedAt, long now) {
+        return ttlMillis > 0 && now - loadedAt > ttlMillis;
+    }
+
+    /**
+     * LONG keys in an open addressing table with the LRU list threaded through entry arrays, lookups don't
+     * allocate. Expired entries stay in place until their key is loaded again or they are evicted.
+     */
+    static class LongKeys extends LookupCache {
+        static final int NO_ENTRY = -1;
+        private final int mask;
+        // entry index per hash slot
+        private final int[] slots;
+        private final long[] keys;
+        private final String[] values;
+        private final long[] loadedAt;
+        private final int[] newer;
+        private final int[] older;
+        private int newest = NO_ENTRY;
+        private int oldest = NO_ENTRY;
+        private int size;
+
+        LongKeys(int capacity, long ttlMillis) {
+            super(capacity, ttlMillis);
+            int slotCount = Integer.highestOneBit(Math.max(capacity, 2) * 2 - 1) << 1;
+            this.mask = slotCount - 1;
+            this.slots = new int[slotCount];
+            Arrays.fill(slots, NO_ENTRY);
+            this.keys = new long[capacity];
+            this.values = new String[capacity];
+            this.loadedAt = new long[capacity];
+            this.newer = new int[capacity];
+            this.older = new int[capacity];
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+
+        /**
+         * @return entry of the key, {@link #NO_ENTRY} when it isn't cached or has expired
+         */
+        int indexOf(long key, long now) {
+            int slot = find(key);
+            if (slot < 0) {
+                return NO_ENTRY;
+            }
+            int entry = slots[slot];
+            if (isExpired(loadedAt[entry], now)) {
+                return NO_ENTRY;
+            }
+            touch(entry);
+            return entry;
+        }
+
+        String valueAt(int entry) {
+            return values[entry];
+        }
+
+        void put(long key, String value, long now) {
+            int slot = find(key);
+            int entry;
+            if (slot >= 0) {
+                entry = slots[slot];
+                touch(entry);
+            } else {
+                if (size < capacity) {
+                    entry = size++;
+                } else {
+                    entry = oldest;
+                    unlink(entry);
+                    remove(find(keys[entry]));
+                    // slot of the new key may have moved while the table was compacted
+                    slot = find(key);
+                }
+                slots[-slot - 1] = entry;
+                keys[entry] = key;
+                link(entry);
+            }
+            values[entry] = value;
+            loadedAt[entry] = now;
+        }
+
+        /**
+         * @return slot of the key or {@code -(free slot) - 1} when it isn't in the table
+         */
+        private int find(long key) {
+            int slot = hash(key) & mask;
+            while (slots[slot] != NO_ENTRY) {
+                if (keys[slots[slot]] == key) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -slot - 1;
+        }
+
+        /**
+         * Frees the slot and shifts back entries of the probe sequence, so lookups don't need tombstones.
+         */
+        private void remove(int slot) {
+            int hole = slot;
+            for (int i = (slot + 1) & mask; slots[i] != NO_ENTRY; i = (i + 1) & mask) {
+                int home = hash(keys[slots[i]]) & mask;
+                if (((i - home) & mask) >= ((i - hole) & mask)) {
+                    slots[hole] = slots[i];
+                    hole = i;
+                }
+            }
+            slots[hole] = NO_ENTRY;
+        }
+
+        private void touch(int entry) {
+            if (entry != newest) {
+                unlink(entry);
+                link(entry);
+            }
+        }
+
+        private void link(int entry) {
+            older[entry] = newest;
+            newer[entry] = NO_ENTRY;
+            if (newest != NO_ENTRY) {
+                newer[newest] = entry;
+            } else {
+                oldest = entry;
+            }
+            newest = entry;
+        }
+
+        private void unlink(int entry) {
+            if (newer[entry] != NO_ENTRY) {
+                older[newer[entry]] = older[entry];
+            } else {
+                newest = older[entry];
+            }
+            if (older[entry] != NO_ENTRY) {
+                newer[older[entry]] = newer[entry];
+            } else {
+                oldest = newer[entry];
+            }
+        }
+    }
+
+    /**
+     * STRING and SYMBOL keys. Keys are copied into a String when they are put, lookups compare the record's
+     * value in place.
+     */
+    static class StrKeys extends LookupCache {
+        private final Map<CharSequence, Entry> entries;
+        private final Probe probe = new Probe();
+
+        StrKeys(int capacity, long ttlMillis) {
+            super(capacity, ttlMillis);
+            this.entries = new LinkedHashMap<CharSequence, Entry>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<CharSequence, Entry> eldest) {
+                    return size() > StrKeys.this.capacity;
+                }
+            };
+        }
+
+        /**
+         * @return cached entry of the key, null when it isn't cached or has expired
+         */
+        Entry get(CharSequence key, long now) {
+            Entry entry = entries.get(probe.of(key));
+            probe.of(null);
+            return entry != null && !isExpired(entry.loadedAt, now) ? entry : null;
+        }
+
+        void put(String key, String value, long now) {
+            entries.put(key, new Entry(value, now));
+        }
+
+        /**
+         * Key looked up without a copy. Hashes like String and equals any String of the same characters,
+         * which is all the map calls on the looked up key.
+         */
+        private static class Probe implements CharSequence {
+            private CharSequence value;
+
+            Probe of(CharSequence value) {
+                this.value = value;
+                return this;
+            }
+
+            @Override
+            public int length() {
+                return value.length();
+            }
+
+            @Override
+            public char charAt(int index) {
+                return value.charAt(index);
+            }
+
+            @Override
+            public CharSequence subSequence(int start, int end) {
+                return value.subSequence(start, end);
+            }
+
+            @Override
+            public int hashCode() {
+                int hash = 0;
+                for (int i = 0, n = value.length(); i < n; i++) {
+                    hash = 31 * hash + value.charAt(i);
+                }
+                return hash;
+            }
+
+            @Override
+            public boolean equals(Object other) {
+                if (!(other instanceof CharSequence)) {
+                    return false;
+                }
+                CharSequence that = (CharSequence) other;
+                int n = value.length();
+                if (that.length() != n) {
+                    return false;
+                }
+                for (int i = 0; i < n; i++) {
+                    if (value.charAt(i) != that.charAt(i)) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public String toString() {
+                return value.toString();
+            }
+        }
+
+        static class Entry {
+            final String value;
+            final long loadedAt;
+
+            private Entry(String value, long loadedAt) {
+                this.value = value;
+                this.loadedAt = loadedAt;
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package io.questdb.griffin.engine.functions.jdbc;
+
+import io.questdb.cairo.GenericRecordMetadata;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU of result set metadata keyed by (pool name, query text), so compiling the same
+ * {@code jdbc()} call again doesn't need a round trip to the remote database.
+ * <p>
+ * Metadata chosen by sampling rows is kept even when caching is disabled, until the pool is initialised again
+ * or the cache is invalidated, so the sample query runs once per query text rather than on every compile.
+ */
+class MetadataCache {
+    static final MetadataCache INSTANCE = new MetadataCache(1024);
+
+    private final Map<String, Entry> entries;
+
+    MetadataCache(int capacity) {
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    private static String key(String poolName, String query) {
+        return poolName + '\u0000' + query;
+    }
+
+    /**
+     * @param sampled true when metadata of the pool is chosen by sampling rows
+     */
+    synchronized GenericRecordMetadata get(String poolName, String query, long ttlMillis, boolean sampled) {
+        if (ttlMillis <= 0 && !sampled) {
+            return null;
+        }
+        String key = key(poolName, query);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (ttlMillis > 0 && System.currentTimeMillis() - entry.created > ttlMillis) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.metadata;
+    }
+
+    synchronized void put(String poolName, String query, GenericRecordMetadata metadata) {
+        entries.put(key(poolName, query), new Entry(metadata, System.currentTimeMillis()));
+    }
+
+    synchronized void invalidate(String poolName) {
+        String prefix = poolName + '\u0000';
+        for (Iterator<String> iterator = entries.keySet().iterator(); iterator.hasNext(); ) {
+            if (iterator.next().startsWith(prefix)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    synchronized void invalidate(String poolName, String query) {
+        entries.remove(key(poolName, query));
+    }
+
+    private static class Entry {
+        private final GenericRecordMetadata metadata;
+        private final long created;
+
+        private Entry(GenericRecordMetadata metadata, long created) {
+            this.metadata = metadata;
+            this.created = created;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package io.questdb.griffin.engine.functions.jdbc;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.sql.Function;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.engine.functions.constants.NullStrConstant;
+import io.questdb.std.ObjList;
+
+/**
+ * {@code jdbc_metadata_invalidate('pool')} drops cached result set metadata and results of {@code jdbc_cached()}
+ * of every query of the pool.
+ */
+public class MetadataInvalidateFunctionFactory implements FunctionFactory {
+    @Override
+    public String getSignature() {
+        return "jdbc_metadata_invalidate(S)";
+    }
+
+    @Override
+    public Function newInstance(ObjList<Function> args, int position, CairoConfiguration configuration) throws SqlException {
+        final CharSequence dataSourceName = args.getQuick(0).getStr(null);
+        MetadataCache.INSTANCE.invalidate(String.valueOf(dataSourceName));
+        ResultCache.INSTANCE.invalidate(String.valueOf(dataSourceName));
+        return new NullStrConstant(position);
+    }
+}
@@ -0,0 +1,165 @@
+package io.questdb.griffin.engine.functions.jdbc;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Pools declared in {@code conf/jdbc_pools.sql} next to the database root, a script of {@code jdbc_pool_init}
+ * statements separated by semicolons, created when the plugin starts. Statements run in parallel, then startup waits
+ * until every pool opened its {@code minimum_idle} connections or the warm-up timeout elapses, pools that aren't
+ * ready by then keep connecting in the background.
+ * <p>
+ * {@code questdb.jdbc.pools.config} system property overrides location of the script,
+ * {@code questdb.jdbc.pools.warmup.millis} the timeout.
+ */
+final class PoolConfig {
+    static final String FILE_NAME = "jdbc_pools.sql";
+    private static final Log LOG = LogFactory.getLog(PoolConfig.class);
+    private static final long WARMUP_TIMEOUT = Long.getLong("questdb.jdbc.pools.warmup.millis", 30_000L);
+    private static final long WARMUP_POLL_INTERVAL = 50;
+
+    private PoolConfig() {
+    }
+
+    static Path locate(CharSequence root) {
+        String path = System.getProperty("questdb.jdbc.pools.config");
+        if (path != null) {
+            return Paths.get(path);
+        }
+        Path dbRoot = Paths.get(root.toString()).toAbsolutePath();
+        Path serverRoot = dbRoot.getParent() != null ? dbRoot.getParent() : dbRoot;
+        return serverRoot.resolve("conf").resolve(FILE_NAME);
+    }
+
+    static void load(CairoEngine engine) {
+        Path path = locate(engine.getConfiguration().getRoot());
+        if (!Files.exists(path)) {
+            return;
+        }
+        final long started = System.currentTimeMillis();
+        final List<String> statements;
+        try {
+            statements = split(new String(Files.readAllBytes(path), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            LOG.error().$("cannot read pool config [path=").$(path.toString()).$(", error=").$(e).$("]").$();
+            return;
+        }
+        List<Future<?>> futures = new ArrayList<>(statements.size());
+        for (String statement : statements) {
+            futures.add(JdbcExecutors.READERS.submit(() -> {
+                // compiler isn't thread safe, every statement gets its own
+                try (SqlCompiler compiler = new SqlCompiler(engine)) {
+                    compiler.compile(statement);
+                }
+                return null;
+            }));
+        }
+        final long deadline = started + WARMUP_TIMEOUT;
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                futures.get(i).get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                LOG.error().$("pool config statement timed out [path=").$(path.toString()).$(", statement=").$(i + 1).$("]").$();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                // one unreachable database doesn't stop the others
+                LOG.error().$("pool config statement failed [path=").$(path.toString()).$(", statement=").$(i + 1)
+                        .$(", error=").$(e.getCause() != null ? e.getCause() : e).$("]").$();
+            }
+        }
+        awaitWarm(deadline);
+        for (JdbcPool pool : ConnectionFunctionFactory.getPools()) {
+            if (pool instanceof PoolGroup) {
+                continue;
+            }
+            HikariPoolMXBean mxBean = pool.getDataSource().getHikariPoolMXBean();
+            LOG.info().$("pool ").$(isWarm(pool) ? "ready" : "warming").$(" [name=").$(pool.getName())
+                    .$(", connections=").$(mxBean != null ? mxBean.getTotalConnections() : 0)
+                    .$(", elapsed_ms=").$(System.currentTimeMillis() - started).$("]").$();
+        }
+    }
+
+    /**
+     * @return true when the pool has at least {@code minimum_idle} open connections
+     */
+    static boolean isWarm(JdbcPool pool) {
+        if (pool instanceof PoolGroup) {
+            // warm when its members are
+            return true;
+        }
+        HikariDataSource dataSource = pool.getDataSource();
+        HikariPoolMXBean mxBean = dataSource.getHikariPoolMXBean();
+        return mxBean != null && mxBean.getTotalConnections() >= dataSource.getMinimumIdle();
+    }
+
+    private static void awaitWarm(long deadline) {
+        try {
+            while (System.currentTimeMillis() < deadline) {
+                boolean warm = true;
+                for (JdbcPool pool : ConnectionFunctionFactory.getPools()) {
+                    warm &= isWarm(pool);
+                }
+                if (warm) {
+                    return;
+                }
+                Thread.sleep(WARMUP_POLL_INTERVAL);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Splits the script by semicolons outside of quotes and drops {@code --} comments.
+     */
+    static List<String> split(String script) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder statement = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0, n = script.length(); i < n; i++) {
+            char c = script.charAt(i);
+            if (!quoted && c == '-' && i + 1 < n && script.charAt(i + 1) == '-') {
+                while (i < n && script.charAt(i) != '\n') {
+                    i++;
+                }
+                statement.append('\n');
+                continue;
+            }
+            if (c == '\'') {
+                quoted = !quoted;
+            }
+            if (!quoted && c == ';') {
+                add(statements, statement);
+                continue;
+            }
+            statement.append(c);
+        }
+        add(statements, statement);
+        return statements;
+    }
+
+    private static void add(List<String> statements, StringBuilder statement) {
+        String text = statement.toString().trim();
+        if (!text.isEmpty()) {
+            statements.add(text);
+        }
+        statement.setLength(0);
+    }
+}
@@ -0,0 +1,269 @@
+package io.questdb.griffin.engine.functions.jdbc;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Logical pool registered by {@code jdbc_pool_group} that spreads connections over member pools, e.g. read replicas.
+ * Every borrow picks a member by the routing policy. A member that fails to hand out a connection is skipped
+ * until a background probe reaches it again, the next member is tried instead. When no member is healthy
+ * all of them are still tried.
+ * <p>
+ * Members are resolved by name on every borrow, so re-initialized or closed members are picked up.
+ * Read settings of the group are copied from the first member.
+ */
+class PoolGroup extends JdbcPool {
+    private static final Log LOG = LogFactory.getLog(PoolGroup.class);
+    private static final long PROBE_INTERVAL = Long.getLong("questdb.jdbc.group.probe.millis", 5_000L);
+    private static final int PROBE_TIMEOUT_SECONDS = 5;
+    /**
+     * Latency assumed for members the probe hasn't measured yet.
+     */
+    private static final long DEFAULT_LATENCY = TimeUnit.MILLISECONDS.toNanos(1);
+    private final String[] members;
+    private final Policy policy;
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicLongArray unhealthyUntil;
+    /**
+     * Moving average of probe round trips in nanoseconds, 0 until measured.
+     */
+    private final AtomicLongArray latency;
+    private final AtomicBoolean probing = new AtomicBoolean();
+    private final ScheduledFuture<?> probe;
+
+    PoolGroup(String name, String[] members, Policy policy, JdbcPool settings) {
+        super(name, settings.getDataSource(), null);
+        this.members = members;
+        this.policy = policy;
+        this.unhealthyUntil = new AtomicLongArray(members.length);
+        this.latency = new AtomicLongArray(members.length);
+        setBatchSize(settings.getBatchSize());
+        setMetadataTtl(settings.getMetadataTtl());
+        setPrefetchDepth(settings.getPrefetchDepth());
+        setFetchSize(settings.getFetchSize());
+        setStreaming(settings.isStreaming());
+        setQueryTimeout(settings.getQueryTimeout());
+        setMaxRows(settings.getMaxRows());
+        setStatementCacheSize(settings.getStatementCacheSize());
+        setResultCacheTtl(settings.getResultCacheTtl());
+        setMaterialize(settings.isMaterialize());
+        setSpoolMemoryLimit(settings.getSpoolMemoryLimit());
+        setSymbolColumns(settings.getSymbolColumns());
+        setSymbolSampleRows(settings.getSymbolSampleRows());
+        setTimeZone(settings.getTimeZone());
+        setLookupCacheSize(settings.getLookupCacheSize());
+        setLookupCacheTtl(settings.getLookupCacheTtl());
+        setExportBatchSize(settings.getExportBatchSize());
+        setExportCommitSize(settings.getExportCommitSize());
+        setExportMultiRow(settings.isExportMultiRow());
+        setExportWriters(settings.getExportWriters());
+        this.probe = JdbcExecutors.SCHEDULER.scheduleWithFixedDelay(() -> {
+            // probes may block on unreachable hosts, the scheduler thread must not
+            if (probing.compareAndSet(false, true)) {
+                JdbcExecutors.READERS.execute(this::probe);
+            }
+        }, 0, PROBE_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    Connection getConnection() throws SQLException {
+        SQLException error = null;
+        for (int member : order(next.getAndIncrement())) {
+            JdbcPool pool = member(member);
+            if (pool == null) {
+                continue;
+            }
+            try {
+                return pool.getConnection();
+            } catch (SQLException e) {
+                markUnhealthy(member, e);
+                if (error == null) {
+                    error = e;
+                } else {
+                    error.addSuppressed(e);
+                }
+            }
+        }
+        throw error != null ? error : new SQLException("no member of pool group " + getName() + " is registered");
+    }
+
+    /**
+     * @return data source of the member the next borrow would most likely use
+     */
+    @Override
+    public HikariDataSource getDataSource() {
+        for (int member : order(next.get())) {
+            JdbcPool pool = member(member);
+            if (pool != null) {
+                return pool.getDataSource();
+            }
+        }
+        return super.getDataSource();
+    }
+
+    @Override
+    synchronized void resize(int maximumPoolSize, int minimumIdle) {
+        for (int member = 0; member < members.length; member++) {
+            JdbcPool pool = member(member);
+            if (pool != null) {
+                pool.resize(maximumPoolSize, minimumIdle);
+            }
+        }
+    }
+
+    /**
+     * Stops probing, members stay registered.
+     */
+    @Override
+    void drain() {
+        probe.cancel(false);
+    }
+
+    @Override
+    public void close() {
+        probe.cancel(false);
+    }
+
+    private JdbcPool member(int member) {
+        JdbcPool pool = ConnectionFunctionFactory.findPool(members[member]);
+        return pool instanceof PoolGroup ? null : pool;
+    }
+
+    private boolean isHealthy(int member, long now) {
+        return unhealthyUntil.get(member) <= now;
+    }
+
+    private void markUnhealthy(int member, Throwable e) {
+        if (unhealthyUntil.getAndSet(member, System.currentTimeMillis() + PROBE_INTERVAL) == 0) {
+            LOG.error().$("pool group member is unhealthy [group=").$(getName()).$(", member=").$(members[member])
+                    .$(", error=").$(e).$("]").$();
+        }
+    }
+
+    /**
+     * @param sequence number of the borrow, round robin starts from its member
+     * @return healthy members in order they should be tried followed by unhealthy ones
+     */
+    private int[] order(int sequence) {
+        final int count = members.length;
+        final long now = System.currentTimeMillis();
+        final int start = Math.floorMod(sequence, count);
+        int[] order = new int[count];
+        int healthy = 0;
+        int tail = count;
+        for (int i = 0; i < count; i++) {
+            int member = (start + i) % count;
+            if (isHealthy(member, now)) {
+                order[healthy++] = member;
+            } else {
+                order[--tail] = member;
+            }
+        }
+        if (healthy > 1) {
+            switch (policy) {
+                case LEAST_ACTIVE:
+                    moveFirst(order, leastActive(order, healthy));
+                    break;
+                case LATENCY:
+                    moveFirst(order, latencyWeighted(order, healthy));
+                    break;
+                default:
+                    break;
+            }
+        }
+        return order;
+    }
+
+    private int leastActive(int[] order, int healthy) {
+        int best = 0;
+        long bestLoad = Long.MAX_VALUE;
+        for (int i = 0; i < healthy; i++) {
+            JdbcPool pool = member(order[i]);
+            HikariPoolMXBean mxBean = pool != null ? pool.getDataSource().getHikariPoolMXBean() : null;
+            if (mxBean != null) {
+                long load = mxBean.getActiveConnections() + mxBean.getThreadsAwaitingConnection();
+                // strict comparison keeps the round robin order between equally loaded members
+                if (load < bestLoad) {
+                    bestLoad = load;
+                    best = i;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Picks a member randomly with probability inverse to its latency.
+     */
+    private int latencyWeighted(int[] order, int healthy) {
+        double[] weights = new double[healthy];
+        double total = 0;
+        for (int i = 0; i < healthy; i++) {
+            long nanos = latency.get(order[i]);
+            weights[i] = 1.0 / (nanos > 0 ? nanos : DEFAULT_LATENCY);
+            total += weights[i];
+        }
+        double pick = ThreadLocalRandom.current().nextDouble(total);
+        for (int i = 0; i < healthy - 1; i++) {
+            pick -= weights[i];
+            if (pick < 0) {
+                return i;
+            }
+        }
+        return healthy - 1;
+    }
+
+    private static void moveFirst(int[] order, int index) {
+        int member = order[index];
+        System.arraycopy(order, 0, order, 1, index);
+        order[0] = member;
+    }
+
+    private void probe() {
+        try {
+            for (int member = 0; member < members.length; member++) {
+                JdbcPool pool = member(member);
+                if (pool == null) {
+                    continue;
+                }
+                HikariDataSource dataSource = pool.getDataSource();
+                HikariPoolMXBean mxBean = dataSource.getHikariPoolMXBean();
+                if (mxBean != null && mxBean.getIdleConnections() == 0 && mxBean.getTotalConnections() >= dataSource.getMaximumPoolSize()) {
+                    // saturated member is busy, not broken, and the probe mustn't take a connection from queries
+                    continue;
+                }
+                final long started = System.nanoTime();
+                try (Connection connection = pool.getConnection()) {
+                    if (!connection.isValid(PROBE_TIMEOUT_SECONDS)) {
+                        throw new SQLException("connection isn't valid");
+                    }
+                    long elapsed = System.nanoTime() - started;
+                    long previous = latency.get(member);
+                    latency.set(member, previous == 0 ? elapsed : (previous * 4 + elapsed) / 5);
+                    if (unhealthyUntil.getAndSet(member, 0) != 0) {
+                        LOG.info().$("pool group member is healthy [group=").$(getName()).$(", member=").$(members[member]).$("]").$();
+                    }
+                } catch (SQLException e) {
+                    markUnhealthy(member, e);
+                }
+            }
+        } finally {
+            probing.set(false);
+        }
+    }
+
+    enum Policy {
+        ROUND_ROBIN, LEAST_ACTIVE, LATENCY
+    }
+}
@@ -0,0 +1,110 @@
+package io.questdb.griffin.engine.functions.jdbc;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Counters and latencies of remote queries aggregated per pool and query fingerprint, i.e. query text with
+ * literals replaced by {@code ?} and whitespace collapsed. Recorded by {@link StatementHolder}, exposed
+ * by {@code jdbc_stats()} and {@code jdbc_decode_stats()}.
+ */
+@Getter
+class QueryStats {
+    /**
+     * Decode time is measured on one of this many rows only, samples are scaled up when recorded.
+     */
+    static final int DECODE_SAMPLE_INTERVAL = 64;
+    static final int MAX_FINGERPRINTS = 1024;
+    static final String OTHER_QUERIES = "<other>";
+    private static final int COLUMN_TYPES = 32;
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?(?:[eE][-+]?\\d+)?\\b");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Map<String, QueryStats> STATS = new ConcurrentHashMap<>();
+    private static final Map<String, QueryStats> BY_QUERY = new ConcurrentHashMap<>();
+
+    private final String poolName;
+    private final String fingerprint;
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder cancellations = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    /**
+     * Executions whose result was cut off at {@code max_rows} of the pool.
+     */
+    private final LongAdder truncations = new LongAdder();
+    /**
+     * Wait for a pooled connection.
+     */
+    private final LatencyHistogram acquire = new LatencyHistogram();
+    /**
+     * Until {@code executeQuery()} returns.
+     */
+    private final LatencyHistogram execute = new LatencyHistogram();
+    /**
+     * From the start of execution until the first row is fetched.
+     */
+    private final LatencyHistogram firstRow = new LatencyHistogram();
+    /**
+     * From borrowing the connection until it is returned to the pool.
+     */
+    private final LatencyHistogram hold = new LatencyHistogram();
+    private final LongAdder[] decodeNanos = new LongAdder[COLUMN_TYPES];
+    private final LongAdder[] decodedValues = new LongAdder[COLUMN_TYPES];
+
+    private QueryStats(String poolName, String fingerprint) {
+        this.poolName = poolName;
+        this.fingerprint = fingerprint;
+        for (int type = 0; type < COLUMN_TYPES; type++) {
+            decodeNanos[type] = new LongAdder();
+            decodedValues[type] = new LongAdder();
+        }
+    }
+
+    static QueryStats of(String poolName, String query) {
+        String queryKey = poolName + '\u0000' + query;
+        QueryStats stats = BY_QUERY.get(queryKey);
+        if (stats != null) {
+            return stats;
+        }
+        String fingerprint = fingerprint(query);
+        stats = STATS.get(poolName + '\u0000' + fingerprint);
+        if (stats == null) {
+            if (STATS.size() >= MAX_FINGERPRINTS) {
+                // bounds memory when queries are built with inlined values the fingerprint doesn't recognize
+                fingerprint = OTHER_QUERIES;
+            }
+            final String fingerprintKey = poolName + '\u0000' + fingerprint;
+            final String statsFingerprint = fingerprint;
+            stats = STATS.computeIfAbsent(fingerprintKey, k -> new QueryStats(poolName, statsFingerprint));
+        }
+        if (BY_QUERY.size() < MAX_FINGERPRINTS) {
+            BY_QUERY.put(queryKey, stats);
+        }
+        return stats;
+    }
+
+    static String fingerprint(String query) {
+        String fingerprint = STRING_LITERAL.matcher(query).replaceAll("?");
+        fingerprint = NUMBER_LITERAL.matcher(fingerprint).replaceAll("?");
+        return WHITESPACE.matcher(fingerprint).replaceAll(" ").trim();
+    }
+
+    static List<QueryStats> snapshot() {
+        return new ArrayList<>(STATS.values());
+    }
+
+    void decoded(int columnType, long sampledNanos) {
+        if (columnType < COLUMN_TYPES) {
+            decodeNanos[columnType].add(sampledNanos * DECODE_SAMPLE_INTERVAL);
+            decodedValues[columnType].add(DECODE_SAMPLE_INTERVAL);
+        }
+    }
+}
@@ -0,0 +1,1005 @@
+package io.questdb.griffin.engine.functions.jdbc;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.NullColumn;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.std.BinarySequence;
+import io.questdb.std.Numbers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.ZoneId;
+import java.util.Arrays;
+
+/**
+ * Columnar buffer for up to {@code capacity} rows drained from a {@link ResultSet}. Each cell is read from
+ * the driver once, into a primitive vector with a null bitmap, so {@link BatchRecord} getters are array reads.
+ * In the opposite direction the batch collects rows of a QuestDB {@link Record} and binds them to a statement.
+ */
+class RecordBatch {
+    private static final NullColumn NULL = NullColumn.INSTANCE;
+    private final ColumnVector[] columns;
+    private final int[] columnTypes;
+    private final int[] jdbcTypes;
+    private final int capacity;
+    private ResultSet resultSet;
+    private int size;
+    private long rowsRead;
+
+    RecordBatch(RecordMetadata metadata, int capacity, ZoneId timeZone) {
+        this(metadata, capacity, null, timeZone);
+    }
+
+    /**
+     * @param symbols  dictionaries SYMBOL values read from result sets are interned into, see
+     *                 {@link SymbolDictionary#of(RecordMetadata)}; null when the batch only collects QuestDB records
+     * @param timeZone zone of remote DATE and TIMESTAMP values without offset, see {@link TemporalCodec}
+     */
+    RecordBatch(RecordMetadata metadata, int capacity, SymbolDictionary[] symbols, ZoneId timeZone) {
+        this.capacity = capacity;
+        this.columns = new ColumnVector[metadata.getColumnCount()];
+        this.columnTypes = new int[columns.length];
+        this.jdbcTypes = new int[columns.length];
+        for (int col = 0; col < columns.length; col++) {
+            columnTypes[col] = metadata.getColumnType(col);
+            columns[col] = newVector(metadata.getColumnType(col), capacity, symbols != null ? symbols[col] : null, timeZone);
+            jdbcTypes[col] = JdbcFunctionFactory.toJdbcType(metadata.getColumnType(col));
+        }
+    }
+
+    /**
+     * @return true when a batch holds values of the column type, queries with other column types are rejected
+     * when they are compiled: {@code jdbc()} only maps remote columns to these types, {@code jdbc_export()} checks
+     * its source
+     */
+    static boolean isSupported(int columnType) {
+        return JdbcFunctionFactory.toJdbcType(columnType) != -1;
+    }
+
+    private static ColumnVector newVector(int columnType, int capacity, SymbolDictionary symbols, ZoneId timeZone) {
+        switch (columnType) {
+            case ColumnType.BOOLEAN:
+                return new BoolVector(capacity);
+            case ColumnType.BYTE:
+                return new ByteVector(capacity);
+            case ColumnType.CHAR:
+                return new CharVector(capacity);
+            case ColumnType.SHORT:
+                return new ShortVector(capacity);
+            case ColumnType.INT:
+                return new IntVector(capacity);
+            case ColumnType.LONG:
+                return new LongVector(capacity);
+            case ColumnType.DATE:
+                return new DateVector(capacity, new TemporalCodec(timeZone));
+            case ColumnType.TIMESTAMP:
+                return new TimestampVector(capacity, new TemporalCodec(timeZone));
+            case ColumnType.FLOAT:
+                return new FloatVector(capacity);
+            case ColumnType.DOUBLE:
+                return new DoubleVector(capacity);
+            case ColumnType.STRING:
+                return new StrVector(capacity);
+            case ColumnType.SYMBOL:
+                return symbols != null ? new SymKeyVector(capacity, symbols) : new SymVector(capacity);
+            case ColumnType.BINARY:
+                return new BinVector(capacity);
+            default:
+                // unreachable, see isSupported()
+                throw new IllegalArgumentException("column type " + columnType + " can't be batched");
+        }
+    }
+
+    /**
+     * Replaces batch content with up to {@code capacity} next rows of the result set. Decode time of every
+     * {@link QueryStats#DECODE_SAMPLE_INTERVAL}th row is recorded per column type.
+     *
+     * @return false when the result set is drained and must not be advanced any more
+     */
+    boolean fill(ResultSet resultSet, QueryStats stats) throws SQLException {
+        if (this.resultSet != resultSet) {
+            ResultSetMetaData metaData = resultSet.getMetaData();
+            for (int col = 0; col < columns.length; col++) {
+                columns[col].of(metaData.getColumnType(col + 1));
+            }
+            this.resultSet = resultSet;
+        }
+        clear();
+        while (size < capacity) {
+            if (!resultSet.next()) {
+                return false;
+            }
+            if (rowsRead++ % QueryStats.DECODE_SAMPLE_INTERVAL == 0) {
+                for (int col = 0; col < columns.length; col++) {
+                    final long started = System.nanoTime();
+                    columns[col].read(resultSet, col + 1, size);
+                    stats.decoded(columnTypes[col], System.nanoTime() - started);
+                }
+            } else {
+                for (int col = 0; col < columns.length; col++) {
+                    columns[col].read(resultSet, col + 1, size);
+                }
+            }
+            size++;
+        }
+        return true;
+    }
+
+    /**
+     * Appends the current row of the record.
+     *
+     * @return true when the batch is full
+     */
+    boolean add(Record record) {
+        for (int col = 0; col < columns.length; col++) {
+            columns[col].put(record, col, size);
+        }
+        return ++size == capacity;
+    }
+
+    /**
+     * Binds all columns of the row to consecutive statement parameters starting from {@code parameterIndex}.
+     */
+    void bind(PreparedStatement statement, int parameterIndex, int row) throws SQLException {
+        for (int col = 0; col < columns.length; col++) {
+            if (columns[col].isNull(row)) {
+                statement.setNull(parameterIndex + col, jdbcTypes[col]);
+            } else {
+                columns[col].bind(statement, parameterIndex + col, row);
+            }
+        }
+    }
+
+    int columnCount() {
+        return columns.length;
+    }
+
+    void clear() {
+        for (ColumnVector column : columns) {
+            column.clear();
+        }
+        size = 0;
+    }
+
+    ColumnVector column(int col) {
+        return columns[col];
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Drops rows past {@code size}, values of the kept rows stay.
+     */
+    void truncate(int size) {
+        this.size = Math.min(this.size, size);
+    }
+
+    long memoryUsed() {
+        long memoryUsed = 0;
+        for (ColumnVector column : columns) {
+            memoryUsed += column.memoryUsed();
+        }
+        return memoryUsed;
+    }
+
+    /**
+     * @return size of the values read into the batch, two bytes per character of strings and a key per symbol
+     */
+    long dataSize() {
+        long dataSize = 0;
+        for (int col = 0; col < columns.length; col++) {
+            switch (columnTypes[col]) {
+                case ColumnType.STRING:
+                    dataSize += (long) ((StrVector) columns[col]).heapSize(size) * Character.BYTES;
+                    break;
+                case ColumnType.BINARY:
+                    dataSize += ((BinVector) columns[col]).heapSize(size);
+                    break;
+                default:
+                    dataSize += (long) ColumnType.sizeOf(columnTypes[col]) * size;
+                    break;
+            }
+        }
+        return dataSize;
+    }
+
+    /**
+     * INT values of a column, keys of SYMBOL columns included.
+     */
+    interface IntValues {
+        int getInt(int row);
+    }
+
+    /**
+     * STRING values of a column, values of SYMBOL columns included.
+     */
+    interface StrValues {
+        CharSequence getStr(int row, StrView view);
+
+        int getStrLen(int row);
+    }
+
+    /**
+     * Values of one column. Getters are declared by the vectors of the types they read, {@link BatchRecord} casts
+     * to the vector of the column type, so a getter can't be called on a vector that doesn't hold its type.
+     */
+    abstract static class ColumnVector {
+        private final long[] nulls;
+
+        ColumnVector(int capacity) {
+            this.nulls = new long[(capacity + 63) >>> 6];
+        }
+
+        abstract void read(ResultSet resultSet, int columnIndex, int row) throws SQLException;
+
+        abstract void put(Record record, int col, int row);
+
+        /**
+         * Sets value of a row that isn't null as statement parameter.
+         */
+        abstract void bind(PreparedStatement statement, int parameterIndex, int row) throws SQLException;
+
+        void of(int jdbcType) {
+        }
+
+        void clear() {
+            Arrays.fill(nulls, 0L);
+        }
+
+        boolean isNull(int row) {
+            return (nulls[row >>> 6] & (1L << row)) != 0;
+        }
+
+        void setNull(int row) {
+            nulls[row >>> 6] |= 1L << row;
+        }
+
+        /**
+         * @return approximate heap footprint of the vector in bytes
+         */
+        long memoryUsed() {
+            return (long) nulls.length * Long.BYTES;
+        }
+    }
+
+    static final class BoolVector extends ColumnVector {
+        private final boolean[] values;
+
+        BoolVector(int capacity) {
+            super(capacity);
+            values = new boolean[capacity];
+        }
+
+        @Override
+        void read(ResultSet resultSet, int columnIndex, int row) throws SQLException {
+            boolean val = resultSet.getBoolean(columnIndex);
+            if (resultSet.wasNull()) {
+                setNull(row);
+                val = NULL.getBool(columnIndex);
+            }
+            values[row] = val;
+        }
+
+        boolean getBool(int row) {
+            return values[row];
+        }
+
+        @Override
+        long memoryUsed() {
+            return super.memoryUsed() + values.length;
+        }
+
+        @Override
+        void put(Record record, int col, int row) {
+            values[row] = record.getBool(col);
+        }
+
+        @Override
+        void bind(PreparedStatement statement, int parameterIndex, int row) throws SQLException {
+            statement.setBoolean(parameterIndex, values[row]);
+        }
+    }
+
+    static final class ByteVector extends ColumnVector {
+        private final byte[] values;
+
+        ByteVector(int capacity) {
+            super(capacity);
+            values = new byte[capacity];
+        }
+
+        @Override
+        void read(ResultSet resultSet, int columnIndex, int row) throws SQLException {
+            byte val = resultSet.getByte(columnIndex);
+            if (resultSet.wasNull()) {
+                setNull(row);
+                val = NULL.getByte(columnIndex);
+            }
+            values[row] = val;
+        }
+
+        byte getByte(int row) {
+            return values[row];
+        }
+
+        @Override
+        long memoryUsed() {
+            return super.memoryUsed() + (long) values.length * Byte.BYTES;
+        }
+
+        @Override
+        void put(Record record, int col, int row) {
+            values[row] = record.getByte(col);
+        }
+
+        @Override
+        void bind(PreparedStatement statement, int parameterIndex, int row) throws SQLException {
+            statement.setByte(parameterIndex, values[row]);
+        }
+    }
+
+    /**
+     * First character of CHAR(1) values, an empty string reads as null.
+     */
+    static final class CharVector extends ColumnVector {
+        private final char[] values;
+
+        CharVector(int capacity) {
+            super(capacity);
+            values = new char[capacity];
+        }
+
+        @Override
+        void read(ResultSet resultSet, int columnIndex, int row) throws SQLException {
+            String val = resultSet.getString(columnIndex);
+            if (val == null || val.isEmpty()) {
+                setNull(row);
+                values[row] = NULL.getChar(columnIndex);
+            } else {
+                values[row] = val.charAt(0);
+            }
+        }
+
+        char getChar(int row) {
+            return values[row];
+        }
+
+        @Override
+        long memoryUsed() {
+            return super.memoryUsed() + (long) values.length * Character.BYTES;
+        }
+
+        @Override
+        void put(Record record, int col, int row) {
+            char val = record.getChar(col);
+            if (val == 0) {
+                setNull(row);
+            }
+            values[row] = val;
+        }
+
+        @Override
+        void bind(PreparedStatement statement, int parameterIndex, int row) throws SQLException {
+            statement.setString(parameterIndex, String.valueOf(values[row]));
+        }
+    }
+
+    static final class ShortVector extends ColumnVector {
+        private final short[] values;
+
+        ShortVector(int capacity) {
+            super(capacity);
+            values = new short[capacity];
+        }
+
+        @Override
+        void read(ResultSet resultSet, int columnIndex, int row) throws SQLException {
+            short val = resultSet.getShort(columnIndex);
+            if (resultSet.wasNull()) {
+                setNull(row);
+                val = NULL.getShort(columnIndex);
+            }
+            values[row] = val;
+        }
+
+        short getShort(int row) {
+            return values[row];
+        }
+
+        @Override
+        long memoryUsed() {
+            return super.memoryUsed() + (long) values.length * Short.BYTES;
+        }
+
+        @Override
+        void put(Record record, int col, int row) {
+            values[row] = record.getShort(col);
+        }
+
+        @Override
+        void bind(PreparedStatement statement, int parameterIndex, int row) throws SQLException {
+            statement.setShort(parameterIndex, values[row]);
+        }
+    }
+
+    static final class IntVector extends ColumnVector implements IntValues {
+        private final int[] values;
+
+        IntVector(int capacity) {
+            super(capacity);
+            values = new int[capacity];
+        }
+
+        @Override
+        void read(ResultSet resultSet, int columnIndex, int row) throws SQLException {
+            int val = resultSet.getInt(columnIndex);
+            if (resultSet.wasNull()) {
+                setNull(row);
+                val = NULL.getInt(columnIndex);
+            }
+            values[row] = val;
+        }
+
+        @Override
+        public int getInt(int row) {
+            return values[row];
+        }
+
+        @Override
+        long memoryUsed() {
+            return super.memoryUsed() + (long) values.length * Integer.BYTES;
+        }
+
+        @Override
+        void put(Record record, int col, int row) {
+            int val = record.getInt(col);
+            if (val == Numbers.INT_NaN) {
+                setNull(row);
+            }
+            values[row] = val;
+        }
+
+        @Override
+        void bind(PreparedStatement statement, int parameterIndex, int row) throws SQLException {
+            statement.setInt(parameterIndex, values[row]);
+        }
+    }
+
+    static class LongVector extends ColumnVector {
+        final long[] values;
+
+        LongVector(int capacity) {
+            super(capacity);
+            values = new long[capacity];
+        }
+
+        @Override
+        void read(ResultSet resultSet, int columnIndex, int row) throws SQLException {
+            long val = resultSet.getLong(columnIndex);
+            if (resultSet.wasNull()) {
+                setNull(row);
+                val = NULL.getLong(columnIndex);
+            }
+            values[row] = val;
+        }
+
+        long getLong(int row) {
+            return values[row];
+        }
+
+        @Override
+        long memoryUsed() {
+            return super.memoryUsed() + (long) values.length * Long.BYTES;
+        }
+
+        @Override
+        void put(Record record, int col, int row) {
+            long val = record.getLong(col);
+            if (val == Numbers.LONG_NaN) {
+                setNull(row);
+            }
+            values[row] = val;
+        }
+
+        @Override
+        void bind(PreparedStatement statement, int parameterIndex, int row) throws SQLException {
+            statement.setLong(parameterIndex, values[row]);
+        }
+    }
+
+    static final class DateVector extends LongVector {
+        private final TemporalCodec codec;
+
+        DateVector(int capacity, TemporalCodec codec) {
+            super(capacity);
+            this.codec = codec;
+        }
+
+        @Override
+        void of(int jdbcType) {
+            codec.of(jdbcType);
+        }
+
+        @Override
+        void read(ResultSet resultSet, int columnIndex, int row) throws SQLException {
+            long val = codec.getMillis(resultSet, columnIndex);
+            if (val == Numbers.LONG_NaN) {
+                setNull(row);
+            }
+            values[row] = val;
+        }
+
+        @Override
+        void put(Record record, int col, int row) {
+            long val = record.getDate(col);
+            if (val == Numbers.LONG_NaN) {
+                setNull(row);
+            }
+            values[row] = val;
+        }
+
+        @Override
+        void bind(PreparedStatement statement, int parameterIndex, int row) throws SQLException {
+            codec.setMillis(statement, parameterIndex, values[row]);
+        }
+    }
+
+    static final class TimestampVector extends LongVector {
+        private final TemporalCodec codec;
+
+        TimestampVector(int capacity, TemporalCodec codec) {
+            super(capacity);
+            this.codec = codec;
+        }
+
+        @Override
+        void of(int jdbcType) {
+            codec.of(jdbcType);
+        }
+
+        @Override
+        void read(ResultSet resultSet, int columnIndex, int row) throws SQLException {
+            long val = codec.getMicros(resultSet, columnIndex);
+            if (val == Numbers.LONG_NaN) {
+                setNull(row);
+            }
+            values[row] = val;
+        }
+
+        @Override
+        void put(Record record, int col, int row) {
+            long val = record.getTimestamp(col);
+            if (val == Numbers.LONG_NaN) {
+                setNull(row);
+            }
+            values[row] = val;
+        }
+
+        @Override
+        void bind(PreparedStatement statement, int parameterIndex, int row) throws SQLException {
+            codec.setMicros(statement, parameterIndex, values[row]);
+        }
+    }
+
+    static final class FloatVector extends ColumnVector {
+        private final float[] values;
+
+        FloatVector(int capacity) {
+            super(capacity);
+            values = new float[capacity];
+        }
+
+        @Override
+        void read(ResultSet resultSet, int columnIndex, int row) throws SQLException {
+            float val = resultSet.getFloat(columnIndex);
+            if (resultSet.wasNull()) {
+                setNull(row);
+                val = NULL.getFloat(columnIndex);
+            }
+            values[row] = val;
+        }
+
+        float getFloat(int row) {
+            return values[row];
+        }
+
+        @Override
+        long memoryUsed() {
+            return super.memoryUsed() + (long) values.length * Float.BYTES;
+        }
+
+        @Override
+        void put(Record record, int col, int row) {
+            float val = record.getFloat(col);
+            if (Float.isNaN(val)) {
+                setNull(row);
+            }
+            values[row] = val;
+        }
+
+        @Override
+        void bind(PreparedStatement statement, int parameterIndex, int row) throws SQLException {
+            statement.setFloat(parameterIndex, values[row]);
+        }
+    }
+
+    static final class DoubleVector extends ColumnVector {
+        private final double[] values;
+
+        DoubleVector(int capacity) {
+            super(capacity);
+            values = new double[capacity];
+        }
+
+        @Override
+        void read(ResultSet resultSet, int columnIndex, int row) throws SQLException {
+            double val = resultSet.getDouble(columnIndex);
+            if (resultSet.wasNull()) {
+                setNull(row);
+                val = NULL.getDouble(columnIndex);
+            }
+            values[row] = val;
+        }
+
+        double getDouble(int row) {
+            return values[row];
+        }
+
+        @Override
+        long memoryUsed() {
+            return super.memoryUsed() + (long) values.length * Double.BYTES;
+        }
+
+        @Override
+        void put(Record record, int col, int row) {
+            double val = record.getDouble(col);
+            if (Double.isNaN(val)) {
+                setNull(row);
+            }
+            values[row] = val;
+        }
+
+        @Override
+        void bind(PreparedStatement statement, int parameterIndex, int row) throws SQLException {
+            statement.setDouble(parameterIndex, values[row]);
+        }
+    }
+
+    /**
+     * Strings of all rows share one char heap, row {@code n} occupies {@code [offsets[n], offsets[n + 1])}.
+     */
+    static class StrVector extends ColumnVector implements StrValues {
+        private final int[] offsets;
+        private char[] heap = new char[64];
+        private boolean characterStream;
+
+        StrVector(int capacity) {
+            super(capacity);
+            offsets = new int[capacity + 1];
+        }
+
+        @Override
+        void of(int jdbcType) {
+            characterStream = JdbcFunctionFactory.isCharacterStream(jdbcType);
+        }
+
+        @Override
+        void read(ResultSet resultSet, int columnIndex, int row) throws SQLException {
+            if (characterStream) {
+                readStream(resultSet.getCharacterStream(columnIndex), row);
+                return;
+            }
+            String val = resultSet.getString(columnIndex);
+            int lo = offsets[row];
+            if (val == null) {
+                setNull(row);
+                offsets[row + 1] = lo;
+                return;
+            }
+            int len = val.length();
+            ensureHeap(lo + len);
+            val.getChars(0, len, heap, lo);
+            offsets[row + 1] = lo + len;
+        }
+
+        private void readStream(Reader reader, int row) throws SQLException {
+            int hi = offsets[row];
+            if (reader == null) {
+                setNull(row);
+                offsets[row + 1] = hi;
+                return;
+            }
+            try (Reader ignored = reader) {
+                int len;
+                do {
+                    ensureHeap(hi + 1);
+                    len = reader.read(heap, hi, heap.length - hi);
+                    if (len > 0) {
+                        hi += len;
+                    }
+                } while (len != -1);
+            } catch (IOException e) {
+                throw new SQLException(e);
+            }
+            offsets[row + 1] = hi;
+        }
+
+        private void ensureHeap(int required) {
+            if (required > heap.length) {
+                heap = Arrays.copyOf(heap, Math.max(required, heap.length << 1));
+            }
+        }
+
+        @Override
+        public CharSequence getStr(int row, StrView view) {
+            return isNull(row) ? null : view.of(heap, offsets[row], offsets[row + 1]);
+        }
+
+        @Override
+        public int getStrLen(int row) {
+            return isNull(row) ? -1 : offsets[row + 1] - offsets[row];
+        }
+
+        int heapSize(int rows) {
+            return offsets[rows];
+        }
+
+        @Override
+        long memoryUsed() {
+            return super.memoryUsed() + (long) offsets.length * Integer.BYTES + (long) heap.length * Character.BYTES;
+        }
+
+        @Override
+        void put(Record record, int col, int row) {
+            put(record.getStr(col), row);
+        }
+
+        void put(CharSequence val, int row) {
+            int lo = offsets[row];
+            if (val == null) {
+                setNull(row);
+                offsets[row + 1] = lo;
+                return;
+            }
+            int len = val.length();
+            ensureHeap(lo + len);
+            for (int i = 0; i < len; i++) {
+                heap[lo + i] = val.charAt(i);
+            }
+            offsets[row + 1] = lo + len;
+        }
+
+        @Override
+        void bind(PreparedStatement statement, int parameterIndex, int row) throws SQLException {
+            statement.setString(parameterIndex, new String(heap, offsets[row], offsets[row + 1] - offsets[row]));
+        }
+    }
+
+    /**
+     * Symbol values of a QuestDB record, kept the same way as strings.
+     */
+    static final class SymVector extends StrVector {
+        SymVector(int capacity) {
+            super(capacity);
+        }
+
+        @Override
+        void put(Record record, int col, int row) {
+            put(record.getSym(col), row);
+        }
+    }
+
+    /**
+     * Remote values of a SYMBOL column kept as keys of the cursor's {@link SymbolDictionary}, so grouping
+     * and joining on the column compares ints.
+     */
+    static final class SymKeyVector extends ColumnVector implements IntValues, StrValues {
+        private final int[] keys;
+        private final SymbolDictionary symbols;
+
+        SymKeyVector(int capacity, SymbolDictionary symbols) {
+            super(capacity);
+            this.keys = new int[capacity];
+            this.symbols = symbols;
+        }
+
+        @Override
+        void read(ResultSet resultSet, int columnIndex, int row) throws SQLException {
+            String val = resultSet.getString(columnIndex);
+            if (val == null) {
+                setNull(row);
+            }
+            keys[row] = symbols.intern(val);
+        }
+
+        @Override
+        public int getInt(int row) {
+            return keys[row];
+        }
+
+        @Override
+        public CharSequence getStr(int row, StrView view) {
+            return getSym(row);
+        }
+
+        @Override
+        public int getStrLen(int row) {
+            CharSequence val = getSym(row);
+            return val != null ? val.length() : -1;
+        }
+
+        CharSequence getSym(int row) {
+            return symbols.value(keys[row]);
+        }
+
+        @Override
+        long memoryUsed() {
+            return super.memoryUsed() + (long) keys.length * Integer.BYTES;
+        }
+
+        @Override
+        void put(Record record, int col, int row) {
+            CharSequence val = record.getSym(col);
+            if (val == null) {
+                setNull(row);
+            }
+            keys[row] = symbols.intern(val);
+        }
+
+        @Override
+        void bind(PreparedStatement statement, int parameterIndex, int row) throws SQLException {
+            statement.setString(parameterIndex, String.valueOf(getSym(row)));
+        }
+    }
+
+    /**
+     * Byte arrays of all rows share one heap, row {@code n} occupies {@code [offsets[n], offsets[n + 1])}.
+     */
+    static final class BinVector extends ColumnVector {
+        private final int[] offsets;
+        private byte[] heap = new byte[64];
+
+        BinVector(int capacity) {
+            super(capacity);
+            offsets = new int[capacity + 1];
+        }
+
+        @Override
+        void read(ResultSet resultSet, int columnIndex, int row) throws SQLException {
+            // streamed straight into the heap, no array is allocated per value
+            InputStream stream = resultSet.getBinaryStream(columnIndex);
+            int hi = offsets[row];
+            if (stream == null) {
+                setNull(row);
+                offsets[row + 1] = hi;
+                return;
+            }
+            try (InputStream ignored = stream) {
+                int len;
+                do {
+                    ensureHeap(hi + 1);
+                    len = stream.read(heap, hi, heap.length - hi);
+                    if (len > 0) {
+                        hi += len;
+                    }
+                } while (len != -1);
+            } catch (IOException e) {
+                throw new SQLException(e);
+            }
+            offsets[row + 1] = hi;
+        }
+
+        private void ensureHeap(int required) {
+            if (required > heap.length) {
+                heap = Arrays.copyOf(heap, Math.max(required, heap.length << 1));
+            }
+        }
+
+        BinarySequence getBin(int row, BinView view) {
+            return isNull(row) ? null : view.of(heap, offsets[row], offsets[row + 1]);
+        }
+
+        long getBinLen(int row) {
+            return isNull(row) ? -1 : offsets[row + 1] - offsets[row];
+        }
+
+        int heapSize(int rows) {
+            return offsets[rows];
+        }
+
+        @Override
+        long memoryUsed() {
+            return super.memoryUsed() + (long) offsets.length * Integer.BYTES + heap.length;
+        }
+
+        @Override
+        void put(Record record, int col, int row) {
+            BinarySequence val = record.getBin(col);
+            int lo = offsets[row];
+            if (val == null) {
+                setNull(row);
+                offsets[row + 1] = lo;
+                return;
+            }
+            int len = (int) val.length();
+            ensureHeap(lo + len);
+            for (int i = 0; i < len; i++) {
+                heap[lo + i] = val.byteAt(i);
+            }
+            offsets[row + 1] = lo + len;
+        }
+
+        @Override
+        void bind(PreparedStatement statement, int parameterIndex, int row) throws SQLException {
+            statement.setBytes(parameterIndex, Arrays.copyOfRange(heap, offsets[row], offsets[row + 1]));
+        }
+    }
+
+    /**
+     * View over the string of one row. Vectors are read-only once filled, so every reader keeps its own views
+     * and the same batch can be read by several cursors at the same time.
+     */
+    static class StrView implements CharSequence {
+        private char[] heap;
+        private int lo;
+        private int hi;
+
+        StrView of(char[] heap, int lo, int hi) {
+            this.heap = heap;
+            this.lo = lo;
+            this.hi = hi;
+            return this;
+        }
+
+        @Override
+        public int length() {
+            return hi - lo;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return heap[lo + index];
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new String(heap, lo + start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            return new String(heap, lo, hi - lo);
+        }
+    }
+
+    static class BinView implements BinarySequence {
+        private byte[] heap;
+        private int lo;
+        private int hi;
+
+        BinView of(byte[] heap, int lo, int hi) {
+            this.heap = heap;
+            this.lo = lo;
+            this.hi = hi;
+            return this;
+        }
+
+        @Override
+        public byte byteAt(long index) {
+            return heap[lo + (int) index];
+        }
+
+        @Override
+        public long length() {
+            return hi - lo;
+        }
+    }
+}
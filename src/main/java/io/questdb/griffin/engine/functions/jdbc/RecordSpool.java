@@ -0,0 +1,83 @@
+package io.questdb.griffin.engine.functions.jdbc;
+
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.std.ObjList;
+
+import java.io.IOException;
+import java.sql.SQLException;
+
+/**
+ * Whole result set read into {@link RecordBatch} chunks. Spool isn't modified once read, row id of a row
+ * is the chunk index in the high and row within the chunk in the low 32 bits. Spools are held on heap, so
+ * a result is only read while it fits the memory limit of its pool.
+ */
+class RecordSpool {
+    /**
+     * Memory limit of pools without {@code spool_memory_limit}.
+     */
+    static final long DEFAULT_MEMORY_LIMIT = Long.getLong("questdb.jdbc.spool.bytes", 256L << 20);
+    private final ObjList<RecordBatch> batches = new ObjList<>();
+    private final SymbolDictionary[] symbols;
+    private long rowCount;
+    private long memoryUsed;
+
+    private RecordSpool(SymbolDictionary[] symbols) {
+        this.symbols = symbols;
+    }
+
+    /**
+     * Reads the rest of the holder's result set. SYMBOL values of all batches share one dictionary per column.
+     *
+     * @throws SQLException when the result takes more than {@code memoryLimit} bytes, the rest isn't fetched
+     */
+    static RecordSpool read(StatementHolder statementHolder, RecordMetadata metadata, int batchSize, long memoryLimit) throws SQLException, IOException {
+        RecordSpool spool = new RecordSpool(SymbolDictionary.of(metadata));
+        boolean moreRows = true;
+        while (moreRows) {
+            RecordBatch batch = new RecordBatch(metadata, batchSize, spool.symbols, statementHolder.getTimeZone());
+            moreRows = statementHolder.fill(batch);
+            if (batch.size() > 0) {
+                spool.batches.add(batch);
+                spool.rowCount += batch.size();
+                spool.memoryUsed += batch.memoryUsed();
+                if (spool.memoryUsed > memoryLimit) {
+                    throw new SQLException("result exceeds spool memory limit of " + memoryLimit
+                            + " bytes, raise spool_memory_limit of the pool or read it without materializing");
+                }
+            }
+        }
+        return spool;
+    }
+
+    /**
+     * @return bytes a result of the pool may spool
+     */
+    static long memoryLimit(JdbcPool pool) {
+        return pool.getSpoolMemoryLimit() > 0 ? pool.getSpoolMemoryLimit() : DEFAULT_MEMORY_LIMIT;
+    }
+
+    static long rowId(int batchIndex, int row) {
+        return ((long) batchIndex << 32) | row;
+    }
+
+    RecordBatch batch(int batchIndex) {
+        return batches.getQuick(batchIndex);
+    }
+
+    SymbolTable getSymbolTable(int col) {
+        return symbols[col];
+    }
+
+    int batchCount() {
+        return batches.size();
+    }
+
+    long getRowCount() {
+        return rowCount;
+    }
+
+    long getMemoryUsed() {
+        return memoryUsed;
+    }
+}
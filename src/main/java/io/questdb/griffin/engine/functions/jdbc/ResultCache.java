@@ -0,0 +1,190 @@
+package io.questdb.griffin.engine.functions.jdbc;
+
+import io.questdb.cairo.GenericRecordMetadata;
+import io.questdb.griffin.SqlException;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Results of {@code jdbc_cached()} materialized into a {@link RecordSpool} and keyed by (pool name, query text).
+ * Total size of cached results is bounded by {@code questdb.jdbc.result.cache.bytes} system property, least recently
+ * used results are evicted first. Only one caller loads a missing result, concurrent callers wait for it.
+ */
+class ResultCache {
+    static final ResultCache INSTANCE = new ResultCache(Long.getLong("questdb.jdbc.result.cache.bytes", 256L << 20));
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final long capacity;
+    private long memoryUsed;
+
+    ResultCache(long capacity) {
+        this.capacity = capacity;
+    }
+
+    private static String key(String poolName, String query) {
+        return poolName + '\u0000' + query;
+    }
+
+    /**
+     * @return metadata of loaded and not yet expired result or null
+     */
+    synchronized GenericRecordMetadata getMetadata(String poolName, String query) {
+        Entry entry = entries.get(key(poolName, query));
+        if (entry == null || !entry.future.isDone() || entry.future.isCompletedExceptionally()
+                || entry.isExpired(System.currentTimeMillis())) {
+            return null;
+        }
+        return entry.future.getNow(null).metadata;
+    }
+
+    Result get(JdbcPool pool, String query, GenericRecordMetadata metadata) throws SQLException, SqlException, IOException {
+        final String key = key(pool.getName(), query);
+        final Entry entry;
+        boolean load = false;
+        synchronized (this) {
+            Entry cached = entries.get(key);
+            if (cached == null || cached.isExpired(System.currentTimeMillis())) {
+                if (cached != null) {
+                    remove(key, cached);
+                }
+                cached = new Entry(pool.getResultCacheTtl());
+                entries.put(key, cached);
+                load = true;
+            }
+            entry = cached;
+        }
+        if (load) {
+            try {
+                Result result = load(pool, query, metadata);
+                synchronized (this) {
+                    // published and counted at once, so a concurrent invalidate can't release what wasn't added
+                    entry.loaded(result);
+                    if (entries.get(key) == entry) {
+                        entry.memoryUsed = result.spool.getMemoryUsed();
+                        memoryUsed += entry.memoryUsed;
+                        evict(entry);
+                    }
+                }
+            } catch (Throwable e) {
+                synchronized (this) {
+                    if (entries.get(key) == entry) {
+                        entries.remove(key);
+                    }
+                }
+                entry.future.completeExceptionally(e);
+            }
+        }
+        try {
+            return entry.future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("interrupted while waiting for cached result", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            if (cause instanceof SqlException) {
+                throw (SqlException) cause;
+            }
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new SQLException(cause);
+        }
+    }
+
+    private static Result load(JdbcPool pool, String query, GenericRecordMetadata metadata) throws SQLException, IOException {
+        int batchSize = pool.getBatchSize() > 0 ? pool.getBatchSize() : JdbcPartitionedFunctionFactory.DEFAULT_BATCH_SIZE;
+        try (StatementHolder statementHolder = new StatementHolder(pool, query)) {
+            statementHolder.createUnlimitedResultSet();
+            RecordSpool spool = RecordSpool.read(statementHolder, metadata, batchSize, RecordSpool.memoryLimit(pool));
+            return new Result(metadata, spool);
+        }
+    }
+
+    /**
+     * Drops least recently used results until the cache fits its capacity. Result larger than the whole
+     * capacity is still returned to the callers waiting for it, but isn't kept.
+     */
+    private void evict(Entry loaded) {
+        for (Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator(); memoryUsed > capacity && iterator.hasNext(); ) {
+            Entry entry = iterator.next().getValue();
+            if (entry != loaded && entry.result != null) {
+                iterator.remove();
+                release(entry);
+            }
+        }
+        if (memoryUsed > capacity) {
+            entries.values().remove(loaded);
+            release(loaded);
+        }
+    }
+
+    private void remove(String key, Entry entry) {
+        entries.remove(key);
+        release(entry);
+    }
+
+    /**
+     * Subtracts memory of the entry, entries still loading or dropped before they were counted hold none.
+     */
+    private void release(Entry entry) {
+        memoryUsed -= entry.memoryUsed;
+        entry.memoryUsed = 0;
+    }
+
+    synchronized void invalidate(String poolName) {
+        String prefix = poolName + '\u0000';
+        for (Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator(); iterator.hasNext(); ) {
+            Map.Entry<String, Entry> entry = iterator.next();
+            if (entry.getKey().startsWith(prefix)) {
+                iterator.remove();
+                release(entry.getValue());
+            }
+        }
+    }
+
+    synchronized long getMemoryUsed() {
+        return memoryUsed;
+    }
+
+    static class Result {
+        final GenericRecordMetadata metadata;
+        final RecordSpool spool;
+
+        private Result(GenericRecordMetadata metadata, RecordSpool spool) {
+            this.metadata = metadata;
+            this.spool = spool;
+        }
+    }
+
+    private static class Entry {
+        private final CompletableFuture<Result> future = new CompletableFuture<>();
+        private final long ttlMillis;
+        private volatile Result result;
+        private long loadedAt;
+        // bytes added to the cache total, guarded by the cache
+        private long memoryUsed;
+
+        private Entry(long ttlMillis) {
+            this.ttlMillis = ttlMillis;
+        }
+
+        private void loaded(Result result) {
+            this.loadedAt = System.currentTimeMillis();
+            this.result = result;
+            future.complete(result);
+        }
+
+        private boolean isExpired(long now) {
+            return result != null && ttlMillis > 0 && now - loadedAt > ttlMillis;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package io.questdb.griffin.engine.functions.jdbc;
+
+import io.questdb.cairo.sql.NoRandomAccessRecordCursor;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.std.ObjList;
+
+/**
+ * Cursor over rows of plugin state captured on every {@link #toTop()}. Leading columns of the metadata
+ * are strings, the rest longs or booleans stored as 0 and 1.
+ */
+abstract class SnapshotRecordCursor implements NoRandomAccessRecordCursor {
+    private final ObjList<Row> rows = new ObjList<>();
+    private final int strColumns;
+    private final int longColumns;
+    private Row row;
+    private int index;
+    private final Record record = new Record() {
+        @Override
+        public boolean getBool(int col) {
+            return row.longs[col - strColumns] != 0;
+        }
+
+        @Override
+        public long getLong(int col) {
+            return row.longs[col - strColumns];
+        }
+
+        @Override
+        public CharSequence getStr(int col) {
+            return row.strs[col];
+        }
+
+        @Override
+        public CharSequence getStrB(int col) {
+            return row.strs[col];
+        }
+
+        @Override
+        public int getStrLen(int col) {
+            return row.strs[col] != null ? row.strs[col].length() : -1;
+        }
+    };
+
+    SnapshotRecordCursor(RecordMetadata metadata, int strColumns) {
+        this.strColumns = strColumns;
+        this.longColumns = metadata.getColumnCount() - strColumns;
+    }
+
+    /**
+     * Appends current state with {@link #add(String[], long[])}.
+     */
+    abstract void snapshot();
+
+    void add(String[] strs, long[] longs) {
+        assert strs.length == strColumns && longs.length == longColumns;
+        Row row = new Row();
+        row.strs = strs;
+        row.longs = longs;
+        rows.add(row);
+    }
+
+    @Override
+    public void close() {
+        rows.clear();
+        row = null;
+    }
+
+    @Override
+    public Record getRecord() {
+        return record;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (index < rows.size()) {
+            row = rows.getQuick(index++);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void toTop() {
+        rows.clear();
+        index = 0;
+        snapshot();
+    }
+
+    @Override
+    public long size() {
+        return rows.size();
+    }
+
+    private static class Row {
+        private String[] strs;
+        private long[] longs;
+    }
+}
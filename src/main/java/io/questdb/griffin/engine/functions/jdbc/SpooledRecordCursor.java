@@ -0,0 +1,92 @@
+package io.questdb.griffin.engine.functions.jdbc;
+
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.cairo.sql.SymbolTable;
+import lombok.SneakyThrows;
+
+/**
+ * Random access cursor over a {@link RecordSpool}. The spool is obtained on the first {@link #toTop()} after
+ * the cursor is created or closed, any further rewind only resets the position.
+ */
+abstract class SpooledRecordCursor implements RecordCursor {
+    private final BatchRecord recordA;
+    private final BatchRecord recordB;
+    private RecordSpool spool;
+    private int batchIndex;
+    private int row;
+
+    SpooledRecordCursor(RecordMetadata metadata) {
+        this.recordA = new BatchRecord(metadata);
+        this.recordB = new BatchRecord(metadata);
+    }
+
+    abstract RecordSpool open() throws Exception;
+
+    @Override
+    public void close() {
+        spool = null;
+    }
+
+    @Override
+    public Record getRecord() {
+        return recordA;
+    }
+
+    @Override
+    public Record getRecordB() {
+        return recordB;
+    }
+
+    @Override
+    public SymbolTable getSymbolTable(int columnIndex) {
+        return spool.getSymbolTable(columnIndex);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (spool == null) {
+            return false;
+        }
+        if (batchIndex >= 0 && batchIndex < spool.batchCount() && ++row < spool.batch(batchIndex).size()) {
+            recordA.setRow(row);
+            return true;
+        }
+        if (++batchIndex < spool.batchCount()) {
+            row = 0;
+            recordA.of(spool.batch(batchIndex), batchIndex);
+            recordA.setRow(0);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void recordAt(Record record, long atRowId) {
+        int batchIndex = (int) (atRowId >>> 32);
+        BatchRecord batchRecord = (BatchRecord) record;
+        batchRecord.of(spool.batch(batchIndex), batchIndex);
+        batchRecord.setRow((int) atRowId);
+    }
+
+    @Override
+    public void recordAt(long rowId) {
+        recordAt(recordA, rowId);
+    }
+
+    @Override
+    @SneakyThrows
+    public void toTop() {
+        if (spool == null) {
+            spool = open();
+        }
+        batchIndex = -1;
+        row = -1;
+    }
+
+    @Override
+    public long size() {
+        return spool != null ? spool.getRowCount() : -1;
+    }
+}
@@ -0,0 +1,172 @@
+package io.questdb.griffin.engine.functions.jdbc;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.logging.Logger;
+
+/**
+ * LRU of prepared statements of one physical connection, so repeated executions of the same query skip remote
+ * parse and plan. Statements are prepared on the connection behind the pool proxy, otherwise the pool would
+ * close them every time the connection is returned.
+ * <p>
+ * Pools open their connections through {@link #dataSource(DataSource)}, so every physical connection owns its
+ * cache and cached statements are closed as soon as the pool closes the connection, e.g. when it is retired
+ * or the data source is replaced.
+ */
+final class StatementCache {
+    private final Connection connection;
+    private final LinkedHashMap<String, PreparedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+
+    private StatementCache(Connection connection) {
+        this.connection = connection;
+    }
+
+    static PreparedStatement prepare(Connection connection, String query, int capacity) throws SQLException {
+        return connection.unwrap(StatementCache.class).prepare(query, capacity);
+    }
+
+    /**
+     * @return data source whose connections keep a statement cache until they are closed
+     */
+    static DataSource dataSource(DataSource dataSource) {
+        return new CachingDataSource(dataSource);
+    }
+
+    private synchronized PreparedStatement prepare(String query, int capacity) throws SQLException {
+        PreparedStatement statement = statements.get(query);
+        if (statement == null || statement.isClosed()) {
+            statement = connection.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statements.put(query, statement);
+        }
+        // capacity can be lowered by jdbc_pool_init while the connection is pooled
+        for (Iterator<PreparedStatement> iterator = statements.values().iterator(); statements.size() > capacity; ) {
+            closeQuietly(iterator.next());
+            iterator.remove();
+        }
+        return statement;
+    }
+
+    private synchronized void close() {
+        for (PreparedStatement statement : statements.values()) {
+            closeQuietly(statement);
+        }
+        statements.clear();
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException ignored) {
+            // statement is gone together with its connection
+        }
+    }
+
+    /**
+     * Physical connection handed to the pool, closes cached statements before the connection itself.
+     */
+    private static class CachingConnection implements InvocationHandler {
+        private final Connection connection;
+        private final StatementCache cache;
+
+        private CachingConnection(Connection connection) {
+            this.connection = connection;
+            this.cache = new StatementCache(connection);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "unwrap":
+                    if (args[0] == StatementCache.class) {
+                        return cache;
+                    }
+                    break;
+                case "isWrapperFor":
+                    if (args[0] == StatementCache.class) {
+                        return true;
+                    }
+                    break;
+                case "close":
+                case "abort":
+                    cache.close();
+                    break;
+                default:
+                    break;
+            }
+            try {
+                return method.invoke(connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    private static class CachingDataSource implements DataSource {
+        private final DataSource dataSource;
+
+        private CachingDataSource(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        private static Connection wrap(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(StatementCache.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, new CachingConnection(connection));
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return wrap(dataSource.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return wrap(dataSource.getConnection(username, password));
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> iface) throws SQLException {
+            return iface.isInstance(dataSource) ? iface.cast(dataSource) : dataSource.unwrap(iface);
+        }
+
+        @Override
+        public boolean isWrapperFor(Class<?> iface) throws SQLException {
+            return iface.isInstance(dataSource) || dataSource.isWrapperFor(iface);
+        }
+
+        @Override
+        public PrintWriter getLogWriter() throws SQLException {
+            return dataSource.getLogWriter();
+        }
+
+        @Override
+        public void setLogWriter(PrintWriter out) throws SQLException {
+            dataSource.setLogWriter(out);
+        }
+
+        @Override
+        public void setLoginTimeout(int seconds) throws SQLException {
+            dataSource.setLoginTimeout(seconds);
+        }
+
+        @Override
+        public int getLoginTimeout() throws SQLException {
+            return dataSource.getLoginTimeout();
+        }
+
+        @Override
+        public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+            return dataSource.getParentLogger();
+        }
+    }
+}
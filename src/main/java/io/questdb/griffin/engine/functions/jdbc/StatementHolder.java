@@ -1,56 +1,344 @@
 package io.questdb.griffin.engine.functions.jdbc;
 
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
 import lombok.Getter;
 import lombok.SneakyThrows;
 
-import javax.sql.DataSource;
 import java.io.Closeable;
 import java.io.IOException;
 import java.sql.*;
+import java.time.ZoneId;
 
 public class StatementHolder implements Closeable {
-    private final DataSource dataSource;
+    private static final Log LOG = LogFactory.getLog(StatementHolder.class);
+    static final int DEFAULT_STREAMING_FETCH_SIZE = 1000;
+    private final JdbcPool pool;
     private final String query;
+    private final Binder binder;
+    private final int fetchSize;
+    private final boolean streaming;
+    private final int queryTimeout;
+    private final long maxRows;
+    private final int statementCacheSize;
+    @Getter
+    private final ZoneId timeZone;
+    @Getter
+    private final QueryStats stats;
+    private boolean restoreAutoCommit;
+    private boolean drained;
+    private volatile boolean cancelled;
+    private long executedAt;
+    private long borrowedAt;
+    private long rowsFetched;
+    private long bytesFetched;
+    private long rowSize;
     private Connection connection;
-    private PreparedStatement statement;
+    private volatile PreparedStatement statement;
     @Getter
     private ResultSet resultSet;
 
-    StatementHolder(DataSource dataSource, String query, boolean schemaOnly) throws SQLException {
-        this.dataSource = dataSource;
+    StatementHolder(JdbcPool pool, String query) {
+        this(pool, query, null);
+    }
+
+    StatementHolder(JdbcPool pool, String query, Binder binder) {
+        this.pool = pool;
         this.query = query;
-        init(schemaOnly);
+        this.binder = binder;
+        this.fetchSize = pool.getFetchSize();
+        this.streaming = pool.isStreaming();
+        this.queryTimeout = pool.getQueryTimeout();
+        this.maxRows = pool.getMaxRows();
+        this.statementCacheSize = pool.getStatementCacheSize();
+        this.timeZone = pool.getTimeZone();
+        this.stats = QueryStats.of(pool.getName(), query);
     }
 
-    private void init(boolean schemaOnly) throws SQLException {
-        this.connection = this.dataSource.getConnection();
-        this.statement = connection.prepareStatement(this.query);
-        if(schemaOnly){
-            statement.setMaxRows(0);
+    private void init() throws SQLException {
+        final long started = System.nanoTime();
+        try {
+            // data source of the pool can be swapped by jdbc_pool_init, group picks a member here
+            this.connection = pool.getConnection();
+        } catch (SQLException e) {
+            stats.getErrors().increment();
+            throw e;
         }
+        borrowedAt = System.nanoTime();
+        stats.getAcquire().record(borrowedAt - started);
         try {
-            resultSet = statement.executeQuery();
+            int fetchSize = this.fetchSize;
+            if(streaming){
+                fetchSize = prepareStreaming(fetchSize);
+            }
+            if(statementCacheSize > 0){
+                this.statement = StatementCache.prepare(connection, this.query, statementCacheSize);
+            } else {
+                this.statement = connection.prepareStatement(this.query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            }
+            if(fetchSize != 0){
+                statement.setFetchSize(fetchSize);
+            }
+            if(queryTimeout > 0){
+                statement.setQueryTimeout(queryTimeout);
+            }
         } catch (SQLException e) {
+            stats.getErrors().increment();
             try (Connection ignored = this.connection){
-                statement.close();
+                restoreAutoCommit();
+                this.connection = null;
             }
             throw e;
         }
     }
 
+    /**
+     * Applies what the driver needs to return rows as they arrive instead of buffering the whole result.
+     *
+     * @return fetch size to set on the statement
+     */
+    private int prepareStreaming(int fetchSize) throws SQLException {
+        String product = connection.getMetaData().getDatabaseProductName();
+        if("MySQL".equalsIgnoreCase(product) || "MariaDB".equalsIgnoreCase(product)){
+            // row by row streaming, positive fetch size only works with useCursorFetch=true
+            return fetchSize != 0 ? fetchSize : Integer.MIN_VALUE;
+        }
+        if("PostgreSQL".equalsIgnoreCase(product) && connection.getAutoCommit()){
+            // PostgreSQL driver uses server side cursor only inside of transaction
+            connection.setAutoCommit(false);
+            restoreAutoCommit = true;
+        }
+        return fetchSize != 0 ? fetchSize : DEFAULT_STREAMING_FETCH_SIZE;
+    }
+
+    private void restoreAutoCommit() throws SQLException {
+        if(restoreAutoCommit){
+            restoreAutoCommit = false;
+            connection.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * Resolves result set metadata of the query. Statement is only prepared when the driver can describe it,
+     * otherwise the query runs once limited to a single row.
+     */
+    ResultSetMetaData describe() throws SQLException {
+        if(connection == null){
+            init();
+        }
+        ResultSetMetaData metaData = null;
+        try {
+            metaData = statement.getMetaData();
+        } catch (SQLFeatureNotSupportedException ignored) {
+            // driver can't describe statement without executing it
+        }
+        if(metaData == null){
+            metaData = sample(1).getMetaData();
+        }
+        return metaData;
+    }
+
+    /**
+     * Runs the query limited to {@code maxRows} rows, so column types can be chosen from the data.
+     */
+    ResultSet sample(int maxRows) throws SQLException {
+        if(connection == null){
+            init();
+        }
+        if(resultSet != null){
+            resultSet.close();
+        }
+        bind();
+        statement.setMaxRows(maxRows);
+        resultSet = statement.executeQuery();
+        // limited result, nothing left to cancel when the holder is closed
+        drained = true;
+        return resultSet;
+    }
+
     @SneakyThrows
     public void createUnlimitedResultSet(){
         if(connection == null){
-            init(false);
+            init();
         }
-        if(statement.getLargeMaxRows() == 0L){
-            try {
-                statement.setLargeMaxRows(Long.MAX_VALUE);
+        try {
+            if(resultSet != null){
                 resultSet.close();
-                resultSet=statement.executeQuery();
-            } catch (SQLException e) {
-                close();
-                throw e;
+            }
+            flushFetched();
+            bind();
+            // one row past the limit tells a result cut off by it from one that just fits
+            setMaxRows(maxRows > 0 && maxRows < Long.MAX_VALUE ? maxRows + 1 : 0);
+            cancelled = false;
+            executedAt = System.nanoTime();
+            resultSet=statement.executeQuery();
+            stats.getExecute().record(System.nanoTime() - executedAt);
+            stats.getExecutions().increment();
+            drained = false;
+        } catch (SQLException e) {
+            stats.getErrors().increment();
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Runs the query limited to a single row for point lookups. Unlike {@link #sample(int)} the execution
+     * is recorded in the stats, the holder still has to be closed to return the connection.
+     *
+     * @return result set positioned on the row or null when the query returned none
+     */
+    ResultSet executeFirst() throws SQLException, IOException {
+        if(connection == null){
+            init();
+        }
+        try {
+            if(resultSet != null){
+                resultSet.close();
+            }
+            flushFetched();
+            bind();
+            statement.setMaxRows(1);
+            executedAt = System.nanoTime();
+            resultSet = statement.executeQuery();
+            stats.getExecute().record(System.nanoTime() - executedAt);
+            stats.getExecutions().increment();
+            // limited result, nothing left to cancel when the holder is closed
+            drained = true;
+            if(resultSet.next()){
+                fetched(1, rowSize);
+                return resultSet;
+            }
+            return null;
+        } catch (SQLException e) {
+            stats.getErrors().increment();
+            close();
+            throw e;
+        }
+    }
+
+    private void setMaxRows(long maxRows) throws SQLException {
+        try {
+            statement.setLargeMaxRows(maxRows);
+        } catch (UnsupportedOperationException | SQLFeatureNotSupportedException e) {
+            statement.setMaxRows((int) Math.min(maxRows, Integer.MAX_VALUE));
+        }
+    }
+
+    /**
+     * Advances the result set by one row. The connection goes back to the pool as soon as the last row
+     * is read, the holder borrows it again on the next execution.
+     */
+    boolean next() throws SQLException, IOException {
+        if(resultSet == null){
+            return false;
+        }
+        try {
+            if(resultSet.next() && !truncated(1)){
+                fetched(1, rowSize);
+                return true;
+            }
+        } catch (SQLException e) {
+            stats.getErrors().increment();
+            throw e;
+        }
+        drained = true;
+        close();
+        return false;
+    }
+
+    /**
+     * Replaces content of the batch with the next rows of the result set. The batch owns copies of the values,
+     * so the connection goes back to the pool right after the last rows are read.
+     *
+     * @return false when the result set is drained
+     */
+    boolean fill(RecordBatch batch) throws SQLException, IOException {
+        if(resultSet == null){
+            batch.clear();
+            return false;
+        }
+        final boolean moreRows;
+        try {
+            boolean filled = batch.fill(resultSet, stats);
+            moreRows = !truncated(batch.size()) && filled;
+        } catch (SQLException e) {
+            stats.getErrors().increment();
+            throw e;
+        }
+        if(maxRows > 0){
+            batch.truncate((int) Math.min(maxRows - rowsFetched, Integer.MAX_VALUE));
+        }
+        fetched(batch.size(), batch.dataSize());
+        if(!moreRows){
+            drained = true;
+            close();
+        }
+        return moreRows;
+    }
+
+    /**
+     * @return true when {@code rows} more rows go past {@code max_rows}, the result is complete at the limit
+     */
+    private boolean truncated(long rows) {
+        if(maxRows <= 0 || rowsFetched + rows <= maxRows){
+            return false;
+        }
+        stats.getTruncations().increment();
+        LOG.info().$("result truncated at max_rows [pool=").$(stats.getPoolName()).$(", rows=").$(maxRows).$("]").$();
+        return true;
+    }
+
+    /**
+     * Sets the size of the fixed width values of a row, counted as fetched bytes for every row read by
+     * {@link #next()} or {@link #executeFirst()}. Batches are counted by {@link RecordBatch#dataSize()} instead.
+     */
+    void setRowSize(long rowSize) {
+        this.rowSize = rowSize;
+    }
+
+    /**
+     * Counts variable width values as they are read from the current row, in addition to the row size.
+     */
+    void fetchedBytes(long bytes) {
+        bytesFetched += bytes;
+    }
+
+    private void fetched(long rows, long bytes) {
+        if(rowsFetched == 0 && rows > 0){
+            stats.getFirstRow().record(System.nanoTime() - executedAt);
+        }
+        rowsFetched += rows;
+        bytesFetched += bytes;
+    }
+
+    private void flushFetched() {
+        stats.getRows().add(rowsFetched);
+        stats.getBytes().add(bytesFetched);
+        rowsFetched = 0;
+        bytesFetched = 0;
+    }
+
+    private void bind() throws SQLException {
+        if(binder != null){
+            binder.bind(statement);
+        }
+    }
+
+    /**
+     * Aborts running query from another thread, the holder still has to be closed by its owner.
+     */
+    void cancel() {
+        Statement statement = this.statement;
+        if(statement != null){
+            if(!cancelled){
+                cancelled = true;
+                stats.getCancellations().increment();
+            }
+            try {
+                statement.cancel();
+            } catch (SQLException ignored) {
+                // statement is already closed or driver doesn't support cancellation
             }
         }
     }
@@ -58,15 +346,46 @@ public class StatementHolder implements Closeable {
     @Override
     @SneakyThrows
     public void close() throws IOException {
+        flushFetched();
+        if(connection != null){
+            stats.getHold().record(System.nanoTime() - borrowedAt);
+        }
         try (Connection ignoredConnection = connection){
-            try (Statement ignored = statement){
-                resultSet.close();
+            try {
+                if(resultSet != null){
+                    if(!drained){
+                        // otherwise many drivers read the rest of the result before the statement is closed
+                        cancel();
+                    }
+                    resultSet.close();
+                }
+            } finally {
+                closeStatement();
             }
+            restoreAutoCommit();
         } finally {
             connection = null;
             statement = null;
             resultSet=null;
         }
     }
-}
 
+    private void closeStatement() throws SQLException {
+        if(statement == null){
+            return;
+        }
+        if(statementCacheSize > 0){
+            // cached statement stays open for the next borrower of the connection
+            statement.clearParameters();
+        } else {
+            statement.close();
+        }
+    }
+
+    /**
+     * Sets parameters of the prepared statement before each execution.
+     */
+    interface Binder {
+        void bind(PreparedStatement statement) throws SQLException;
+    }
+}
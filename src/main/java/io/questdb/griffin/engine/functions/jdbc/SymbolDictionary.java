@@ -0,0 +1,76 @@
+package io.questdb.griffin.engine.functions.jdbc;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.std.CharSequenceIntHashMap;
+
+import java.util.Arrays;
+
+/**
+ * Values of a remote column read as SYMBOL, interned into int keys in the order they are first seen.
+ * Keys are only valid for the cursor that owns the dictionary, until it is rewound.
+ * <p>
+ * Several background readers of one cursor may intern at the same time, values are looked up without locking.
+ */
+class SymbolDictionary implements SymbolTable {
+    private static final int INITIAL_CAPACITY = 16;
+    private final CharSequenceIntHashMap keys = new CharSequenceIntHashMap();
+    private volatile String[] values = new String[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * @return dictionary for every SYMBOL column of the metadata, null for other columns
+     */
+    static SymbolDictionary[] of(RecordMetadata metadata) {
+        SymbolDictionary[] dictionaries = new SymbolDictionary[metadata.getColumnCount()];
+        for (int col = 0; col < dictionaries.length; col++) {
+            if (metadata.getColumnType(col) == ColumnType.SYMBOL) {
+                dictionaries[col] = new SymbolDictionary();
+            }
+        }
+        return dictionaries;
+    }
+
+    static void clear(SymbolDictionary[] dictionaries) {
+        for (SymbolDictionary dictionary : dictionaries) {
+            if (dictionary != null) {
+                dictionary.clear();
+            }
+        }
+    }
+
+    /**
+     * @return key of the value, {@link SymbolTable#VALUE_IS_NULL} for null
+     */
+    synchronized int intern(CharSequence value) {
+        if (value == null) {
+            return VALUE_IS_NULL;
+        }
+        int index = keys.keyIndex(value);
+        if (index < 0) {
+            return keys.valueAt(index);
+        }
+        String[] values = this.values;
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size << 1);
+        }
+        String key = value.toString();
+        values[size] = key;
+        // volatile write publishes the grown array together with the new value
+        this.values = values;
+        keys.putAt(index, key, size);
+        return size++;
+    }
+
+    @Override
+    public CharSequence value(int key) {
+        return key < 0 ? null : values[key];
+    }
+
+    synchronized void clear() {
+        keys.clear();
+        values = new String[INITIAL_CAPACITY];
+        size = 0;
+    }
+}
@@ -0,0 +1,62 @@
+package io.questdb.griffin.engine.functions.jdbc;
+
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs registered {@link IncrementalSync}s periodically, at most one schedule per target table.
+ * Schedules live until they are replaced, cancelled or the plugin is closed.
+ */
+final class SyncScheduler {
+    static final SyncScheduler INSTANCE = new SyncScheduler();
+    private static final Log LOG = LogFactory.getLog(SyncScheduler.class);
+    private final Map<String, ScheduledFuture<?>> schedules = new ConcurrentHashMap<>();
+    private ScheduledExecutorService executor;
+
+    private SyncScheduler() {
+    }
+
+    synchronized void schedule(IncrementalSync sync, long intervalMillis) {
+        cancel(sync.getTableName());
+        if (executor == null) {
+            executor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "jdbc-sync");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        schedules.put(sync.getTableName(), executor.scheduleWithFixedDelay(() -> {
+            try {
+                long watermark = sync.run();
+                LOG.info().$("jdbc_sync [table=").$(sync.getTableName()).$(", rows=").$(sync.getCopy().getRows())
+                        .$(", watermark=").$(watermark).$("]").$();
+            } catch (Throwable e) {
+                // next run retries from the same high-water mark
+                LOG.error().$("jdbc_sync failed [table=").$(sync.getTableName()).$(", error=").$(e).$("]").$();
+            }
+        }, 0, intervalMillis, TimeUnit.MILLISECONDS));
+    }
+
+    synchronized void cancel(String tableName) {
+        ScheduledFuture<?> schedule = schedules.remove(tableName);
+        if (schedule != null) {
+            schedule.cancel(false);
+        }
+    }
+
+    synchronized void close() {
+        schedules.values().forEach(schedule -> schedule.cancel(false));
+        schedules.clear();
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+}
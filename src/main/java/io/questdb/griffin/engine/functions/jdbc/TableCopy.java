@@ -0,0 +1,259 @@
+package io.questdb.griffin.engine.functions.jdbc;
+
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.TableWriter;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.griffin.SqlException;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.BinarySequence;
+import io.questdb.std.Numbers;
+import io.questdb.std.ObjList;
+import lombok.Getter;
+
+/**
+ * Appends result of a remote query to a QuestDB table. Background reader decodes rows into batches while
+ * the calling thread appends them through {@link TableWriter}, the two are connected by a queue of at most
+ * {@code prefetch_depth} batches.
+ * <p>
+ * Source columns are matched to table columns by name, table columns missing in the source are left null.
+ * Rows are appended as they arrive, so a table with designated timestamp needs the query ordered by it.
+ */
+@Getter
+class TableCopy {
+    private static final Log LOG = LogFactory.getLog(TableCopy.class);
+    private final CairoEngine engine;
+    private final JdbcPool pool;
+    private final RecordMetadata metadata;
+    private final String tableName;
+    private final int tablePosition;
+    private final long commitRows;
+    private long rows;
+    private long bytes;
+    private long commits;
+    private long elapsed;
+    /**
+     * Highest value of the tracked column among copied rows, {@link Numbers#LONG_NaN} when nothing was copied.
+     */
+    private long maxValue;
+
+    TableCopy(CairoEngine engine, JdbcPool pool, RecordMetadata metadata, String tableName, int tablePosition, long commitRows) {
+        this.engine = engine;
+        this.pool = pool;
+        this.metadata = metadata;
+        this.tableName = tableName;
+        this.tablePosition = tablePosition;
+        this.commitRows = commitRows;
+    }
+
+    static TableWriter getWriter(CairoEngine engine, String tableName, int position) throws SqlException {
+        try {
+            return engine.getWriter(tableName);
+        } catch (CairoException e) {
+            throw SqlException.$(position, "cannot open table writer: ").put(e.getFlatMessage());
+        }
+    }
+
+    /**
+     * @return index of the table column for each source column, -1 for the designated timestamp
+     * which is passed to {@link TableWriter#newRow(long)} instead
+     */
+    static int[] mapColumns(RecordMetadata source, RecordMetadata target, int position) throws SqlException {
+        int[] targetColumns = new int[source.getColumnCount()];
+        boolean timestampFound = target.getTimestampIndex() == -1;
+        for (int col = 0; col < targetColumns.length; col++) {
+            CharSequence name = source.getColumnName(col);
+            int targetCol = target.getColumnIndexQuiet(name);
+            if (targetCol == -1) {
+                throw SqlException.invalidColumn(position, name);
+            }
+            int sourceType = source.getColumnType(col);
+            int targetType = target.getColumnType(targetCol);
+            if (!isCopyable(targetType) || sourceType != targetType && !(isText(sourceType) && isText(targetType))) {
+                throw SqlException.$(position, "cannot copy ").put(ColumnType.nameOf(sourceType))
+                        .put(" into ").put(ColumnType.nameOf(targetType)).put(" column ").put(name);
+            }
+            if (targetCol == target.getTimestampIndex()) {
+                timestampFound = true;
+                targetCol = -1;
+            }
+            targetColumns[col] = targetCol;
+        }
+        if (!timestampFound) {
+            throw SqlException.$(position, "query doesn't return designated timestamp column ")
+                    .put(target.getColumnName(target.getTimestampIndex()));
+        }
+        return targetColumns;
+    }
+
+    /**
+     * @return whether {@link #copyValue} writes the column type, checked before the first row is appended
+     */
+    private static boolean isCopyable(int columnType) {
+        switch (columnType) {
+            case ColumnType.BOOLEAN:
+            case ColumnType.BYTE:
+            case ColumnType.CHAR:
+            case ColumnType.SHORT:
+            case ColumnType.INT:
+            case ColumnType.LONG:
+            case ColumnType.FLOAT:
+            case ColumnType.DOUBLE:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+            case ColumnType.STRING:
+            case ColumnType.SYMBOL:
+            case ColumnType.BINARY:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    static boolean isText(int columnType) {
+        return columnType == ColumnType.STRING || columnType == ColumnType.SYMBOL;
+    }
+
+    /**
+     * @return value of INT, LONG, DATE or TIMESTAMP column as long
+     */
+    static long getLong(Record record, int col, int columnType) {
+        switch (columnType) {
+            case ColumnType.INT:
+                int value = record.getInt(col);
+                return value != Numbers.INT_NaN ? value : Numbers.LONG_NaN;
+            case ColumnType.DATE:
+                return record.getDate(col);
+            case ColumnType.TIMESTAMP:
+                return record.getTimestamp(col);
+            default:
+                return record.getLong(col);
+        }
+    }
+
+    /**
+     * @return number of bytes of the copied value
+     */
+    private static long copyValue(Record record, int col, TableWriter.Row row, int targetCol, int targetType) {
+        switch (targetType) {
+            case ColumnType.BOOLEAN:
+                row.putBool(targetCol, record.getBool(col));
+                return Byte.BYTES;
+            case ColumnType.BYTE:
+                row.putByte(targetCol, record.getByte(col));
+                return Byte.BYTES;
+            case ColumnType.CHAR:
+                row.putChar(targetCol, record.getChar(col));
+                return Character.BYTES;
+            case ColumnType.SHORT:
+                row.putShort(targetCol, record.getShort(col));
+                return Short.BYTES;
+            case ColumnType.INT:
+                row.putInt(targetCol, record.getInt(col));
+                return Integer.BYTES;
+            case ColumnType.LONG:
+                row.putLong(targetCol, record.getLong(col));
+                return Long.BYTES;
+            case ColumnType.FLOAT:
+                row.putFloat(targetCol, record.getFloat(col));
+                return Float.BYTES;
+            case ColumnType.DOUBLE:
+                row.putDouble(targetCol, record.getDouble(col));
+                return Double.BYTES;
+            case ColumnType.DATE:
+                row.putDate(targetCol, record.getDate(col));
+                return Long.BYTES;
+            case ColumnType.TIMESTAMP:
+                row.putTimestamp(targetCol, record.getTimestamp(col));
+                return Long.BYTES;
+            case ColumnType.STRING:
+                CharSequence str = record.getStr(col);
+                row.putStr(targetCol, str);
+                return str != null ? (long) str.length() * Character.BYTES : 0;
+            case ColumnType.SYMBOL:
+                CharSequence symbol = record.getStr(col);
+                row.putSym(targetCol, symbol);
+                return symbol != null ? (long) symbol.length() * Character.BYTES : 0;
+            case ColumnType.BINARY:
+                BinarySequence bin = record.getBin(col);
+                row.putBin(targetCol, bin);
+                return bin != null ? bin.length() : 0;
+            default:
+                // rejected by mapColumns() before the copy starts
+                throw new UnsupportedOperationException("column type " + targetType + " can't be copied");
+        }
+    }
+
+    /**
+     * Runs the statement and appends all its rows. Changes are committed every {@code commitRows} rows
+     * and once at the end, 0 commits only at the end. Uncommitted rows are rolled back on failure.
+     *
+     * @param trackedCol source column whose highest value is kept in {@link #getMaxValue()}, -1 for none
+     */
+    void run(StatementHolder statementHolder, int trackedCol) throws Exception {
+        final long started = System.currentTimeMillis();
+        int batchSize = pool.getBatchSize() > 0 ? pool.getBatchSize() : JdbcPartitionedFunctionFactory.DEFAULT_BATCH_SIZE;
+        int depth = pool.getPrefetchDepth() > 0 ? pool.getPrefetchDepth() : JdbcPartitionedFunctionFactory.QUEUE_DEPTH;
+        ObjList<StatementHolder> statementHolders = new ObjList<>(1);
+        statementHolders.add(statementHolder);
+        rows = 0;
+        bytes = 0;
+        commits = 0;
+        maxValue = Numbers.LONG_NaN;
+        int trackedType = trackedCol != -1 ? metadata.getColumnType(trackedCol) : -1;
+        try (AsyncRecordCursor source = new AsyncRecordCursor(statementHolders, metadata, batchSize, depth);
+             TableWriter writer = getWriter(engine, tableName, tablePosition)) {
+            RecordMetadata targetMetadata = writer.getMetadata();
+            int[] targetColumns = mapColumns(metadata, targetMetadata, tablePosition);
+            int[] targetTypes = new int[targetColumns.length];
+            int timestampCol = -1;
+            for (int col = 0; col < targetColumns.length; col++) {
+                if (targetColumns[col] == -1) {
+                    timestampCol = col;
+                } else {
+                    targetTypes[col] = targetMetadata.getColumnType(targetColumns[col]);
+                }
+            }
+            try {
+                source.toTop();
+                Record record = source.getRecord();
+                long uncommitted = 0;
+                while (source.hasNext()) {
+                    TableWriter.Row row = writer.newRow(timestampCol != -1 ? record.getTimestamp(timestampCol) : 0L);
+                    for (int col = 0; col < targetColumns.length; col++) {
+                        if (targetColumns[col] != -1) {
+                            bytes += copyValue(record, col, row, targetColumns[col], targetTypes[col]);
+                        } else {
+                            bytes += Long.BYTES;
+                        }
+                    }
+                    row.append();
+                    rows++;
+                    if (trackedCol != -1) {
+                        long value = getLong(record, trackedCol, trackedType);
+                        if (value != Numbers.LONG_NaN && (maxValue == Numbers.LONG_NaN || value > maxValue)) {
+                            maxValue = value;
+                        }
+                    }
+                    if (++uncommitted == commitRows) {
+                        writer.commit();
+                        commits++;
+                        uncommitted = 0;
+                        LOG.info().$("copy [table=").$(tableName).$(", rows=").$(rows).$(", bytes=").$(bytes).$("]").$();
+                    }
+                }
+                writer.commit();
+                commits++;
+            } catch (Throwable e) {
+                writer.rollback();
+                throw e;
+            }
+        }
+        elapsed = System.currentTimeMillis() - started;
+        LOG.info().$("copy done [table=").$(tableName).$(", rows=").$(rows).$(", bytes=").$(bytes)
+                .$(", commits=").$(commits).$(", elapsed_ms=").$(elapsed).$("]").$();
+    }
+}
@@ -0,0 +1,115 @@
+package io.questdb.griffin.engine.functions.jdbc;
+
+import io.questdb.std.Numbers;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneRules;
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * Converts remote DATE, TIME and TIMESTAMP values into QuestDB epoch microseconds and back. Values are read
+ * through {@code getObject()} with java.time types, which keeps sub-millisecond precision and skips
+ * {@link Timestamp}. Drivers without java.time support fall back to {@code getTimestamp()} for the rest
+ * of the result set.
+ * <p>
+ * Values without an offset are wall time in {@code timezone} of the pool, TIME is taken as time of 1970-01-01.
+ * The codec keeps a {@link Calendar}, so it must not be shared between threads.
+ */
+class TemporalCodec {
+    private static final LocalDate EPOCH_DAY = LocalDate.ofEpochDay(0);
+    private final ZoneRules rules;
+    private final ZoneOffset fixedOffset;
+    private final Calendar calendar;
+    private int jdbcType = Types.TIMESTAMP;
+    private boolean javaTime = true;
+
+    TemporalCodec(ZoneId timeZone) {
+        this.rules = timeZone.getRules();
+        this.fixedOffset = rules.isFixedOffset() ? rules.getOffset(Instant.EPOCH) : null;
+        this.calendar = Calendar.getInstance(TimeZone.getTimeZone(timeZone));
+    }
+
+    private static long toMicros(long epochSecond, int nanos) {
+        return epochSecond * 1_000_000L + nanos / 1000;
+    }
+
+    /**
+     * Prepares the codec for a column of a new result set.
+     */
+    void of(int jdbcType) {
+        this.jdbcType = jdbcType;
+        this.javaTime = true;
+    }
+
+    /**
+     * @return epoch microseconds or {@link Numbers#LONG_NaN} for null
+     */
+    long getMicros(ResultSet resultSet, int columnIndex) throws SQLException {
+        if (javaTime) {
+            try {
+                return getJavaTimeMicros(resultSet, columnIndex);
+            } catch (SQLException | AbstractMethodError e) {
+                // conversion isn't supported, a real failure is raised again by getTimestamp()
+                javaTime = false;
+            }
+        }
+        Timestamp timestamp = resultSet.getTimestamp(columnIndex, calendar);
+        return timestamp != null ? toMicros(Math.floorDiv(timestamp.getTime(), 1000L), timestamp.getNanos()) : Numbers.LONG_NaN;
+    }
+
+    /**
+     * @return epoch milliseconds or {@link Numbers#LONG_NaN} for null
+     */
+    long getMillis(ResultSet resultSet, int columnIndex) throws SQLException {
+        long micros = getMicros(resultSet, columnIndex);
+        return micros != Numbers.LONG_NaN ? Math.floorDiv(micros, 1000L) : Numbers.LONG_NaN;
+    }
+
+    private long getJavaTimeMicros(ResultSet resultSet, int columnIndex) throws SQLException {
+        switch (jdbcType) {
+            case Types.TIMESTAMP_WITH_TIMEZONE:
+                OffsetDateTime offsetDateTime = resultSet.getObject(columnIndex, OffsetDateTime.class);
+                return offsetDateTime != null ? toMicros(offsetDateTime.toEpochSecond(), offsetDateTime.getNano()) : Numbers.LONG_NaN;
+            case Types.DATE:
+                LocalDate date = resultSet.getObject(columnIndex, LocalDate.class);
+                return date != null ? toMicros(toEpochSecond(date.atStartOfDay()), 0) : Numbers.LONG_NaN;
+            case Types.TIME:
+                LocalTime time = resultSet.getObject(columnIndex, LocalTime.class);
+                return time != null ? toMicros(toEpochSecond(LocalDateTime.of(EPOCH_DAY, time)), time.getNano()) : Numbers.LONG_NaN;
+            default:
+                LocalDateTime dateTime = resultSet.getObject(columnIndex, LocalDateTime.class);
+                return dateTime != null ? toMicros(toEpochSecond(dateTime), dateTime.getNano()) : Numbers.LONG_NaN;
+        }
+    }
+
+    private long toEpochSecond(LocalDateTime dateTime) {
+        // zone rules are only looked up for zones with daylight saving
+        return dateTime.toEpochSecond(fixedOffset != null ? fixedOffset : rules.getOffset(dateTime));
+    }
+
+    /**
+     * Sets epoch microseconds as wall time in the time zone of the codec.
+     */
+    void setMicros(PreparedStatement statement, int parameterIndex, long micros) throws SQLException {
+        statement.setTimestamp(parameterIndex, ArgumentBinder.toTimestamp(micros), calendar);
+    }
+
+    /**
+     * Sets epoch milliseconds as wall time in the time zone of the codec.
+     */
+    void setMillis(PreparedStatement statement, int parameterIndex, long millis) throws SQLException {
+        statement.setTimestamp(parameterIndex, new Timestamp(millis), calendar);
+    }
+}
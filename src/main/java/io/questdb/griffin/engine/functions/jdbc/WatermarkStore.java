@@ -0,0 +1,69 @@
+package io.questdb.griffin.engine.functions.jdbc;
+
+import io.questdb.cairo.CairoEngine;
+import io.questdb.std.Numbers;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * High-water marks of incremental syncs kept in {@code jdbc_sync.properties} in the database root.
+ * The file is rewritten and synced to disk on every change and replaced atomically.
+ */
+final class WatermarkStore {
+    private static final String FILE_NAME = "jdbc_sync.properties";
+    private static final Map<String, WatermarkStore> STORES = new ConcurrentHashMap<>();
+    private final Map<String, Object> locks = new ConcurrentHashMap<>();
+    private final Path path;
+    private final Properties values = new Properties();
+
+    private WatermarkStore(Path path) {
+        this.path = path;
+        if (Files.exists(path)) {
+            try (InputStream in = Files.newInputStream(path)) {
+                values.load(in);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    static WatermarkStore of(CairoEngine engine) {
+        String root = engine.getConfiguration().getRoot().toString();
+        return STORES.computeIfAbsent(root, r -> new WatermarkStore(Paths.get(r, FILE_NAME)));
+    }
+
+    /**
+     * @return monitor serializing syncs of the key
+     */
+    Object lock(String key) {
+        return locks.computeIfAbsent(key, k -> new Object());
+    }
+
+    /**
+     * @return stored high-water mark or {@link Numbers#LONG_NaN} when the sync hasn't copied anything yet
+     */
+    synchronized long get(String key) {
+        String value = values.getProperty(key);
+        return value != null ? Long.parseLong(value) : Numbers.LONG_NaN;
+    }
+
+    synchronized void put(String key, long value) throws IOException {
+        values.setProperty(key, Long.toString(value));
+        Path tmp = path.resolveSibling(FILE_NAME + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp.toFile())) {
+            values.store(out, "jdbc_sync high-water marks");
+            out.getFD().sync();
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -1,21 +1,68 @@
 package io.questdb.griffin.engine.functions.jdbc;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
 import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.DefaultCairoConfiguration;
+import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordMetadata;
 import io.questdb.griffin.CompiledQuery;
 import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlException;
 import io.questdb.griffin.engine.RecordCursorPrinter;
+import io.questdb.std.Numbers;
 import io.questdb.std.str.StringSink;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
 import org.junit.jupiter.api.io.TempDir;
 
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 public class ConnectionFunctionTest {
+    private static final AtomicInteger EXECUTIONS = new AtomicInteger();
+    private static volatile long SLOW_SHARD_MILLIS;
+
+    /**
+     * Called by H2 once per row of the remote query, see {@code count_execution} alias.
+     */
+    public static int countExecution() {
+        return EXECUTIONS.incrementAndGet();
+    }
+
+    /**
+     * Called by H2 once per row of the remote query, see {@code slow_shard} alias. Rows of the second
+     * fanout shard take {@link #SLOW_SHARD_MILLIS} each.
+     */
+    public static int slowShard(long id) throws InterruptedException {
+        if (id > 30) {
+            Thread.sleep(SLOW_SHARD_MILLIS);
+        }
+        return 0;
+    }
+
     @Test
     void testH2JdbcSelect(@TempDir Path tempDir) throws Exception{
         DefaultCairoConfiguration configuration = new DefaultCairoConfiguration(tempDir.toAbsolutePath().toString());
@@ -37,4 +84,900 @@ public class ConnectionFunctionTest {
             }
         }
     }
+
+    @Test
+    void testH2JdbcMetadataWithoutExecution(@TempDir Path tempDir) throws Exception{
+        DefaultCairoConfiguration configuration = new DefaultCairoConfiguration(tempDir.toAbsolutePath().toString());
+        try (CairoEngine engine = new CairoEngine(configuration);
+             Connection connection = DriverManager.getConnection("jdbc:h2:mem:meta;DB_CLOSE_DELAY=-1")){
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("create alias count_execution for \"" + ConnectionFunctionTest.class.getName() + ".countExecution\"");
+                statement.execute("create table t(a int)");
+                statement.execute("insert into t values(1)");
+            }
+            try (SqlCompiler compiler = new SqlCompiler(engine)){
+                compiler.compile("select jdbc_pool_init(select 'mem_meta' name,'jdbc:h2:mem:meta' url, " +
+                        "cast('' as STRING) user, cast('' as STRING) password, cast(60000 as long) metadata_ttl " +
+                        "from long_sequence(1)) from long_sequence(1)");
+                EXECUTIONS.set(0);
+                CompiledQuery counted = compiler.compile("select X from jdbc('mem_meta','select X, count_execution() N from system_range(1, 1)')");
+                assertThat(EXECUTIONS.get()).isEqualTo(0);
+                assertThat(print(counted)).isEqualTo("X\n1\n");
+                assertThat(EXECUTIONS.get()).isEqualTo(1);
+                assertThat(print(counted)).isEqualTo("X\n1\n");
+                assertThat(EXECUTIONS.get()).isEqualTo(2);
+
+                // cached metadata doesn't see the new column until it is invalidated
+                String select = "select * from jdbc('mem_meta','select * from t')";
+                assertThat(print(compiler.compile(select))).isEqualTo("A\n1\n");
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("alter table t add column b int default 2");
+                }
+                assertThat(print(compiler.compile(select))).isEqualTo("A\n1\n");
+                compiler.compile("select jdbc_metadata_invalidate('mem_meta') from long_sequence(1)");
+                assertThat(print(compiler.compile(select))).isEqualTo("A\tB\n1\t2\n");
+            }
+        }
+    }
+
+    @Test
+    void testH2JdbcEarlyClose(@TempDir Path tempDir) throws Exception{
+        DefaultCairoConfiguration configuration = new DefaultCairoConfiguration(tempDir.toAbsolutePath().toString());
+        try (CairoEngine engine = new CairoEngine(configuration)){
+            try (SqlCompiler compiler = new SqlCompiler(engine)){
+                compiler.compile("select jdbc_pool_init(select 'mem_early' name,'jdbc:h2:mem:early' url, " +
+                        "cast('' as STRING) user, cast('' as STRING) password, 1 max_pool_size, " +
+                        "cast(250 as long) connection_timeout from long_sequence(1)) from long_sequence(1)");
+                CompiledQuery query = compiler.compile("select * from jdbc('mem_early','select X from system_range(1, 10000000)')");
+                CompiledQuery active = compiler.compile("select active from jdbc_pools() where name = 'mem_early'");
+
+                try (RecordCursor cursor = query.getRecordCursorFactory().getCursor()){
+                    assertThat(cursor.hasNext()).isTrue();
+                    assertThat(print(active)).isEqualTo("active\n1\n");
+                }
+                assertThat(print(compiler.compile("select executions, cancellations from jdbc_stats() where pool = 'mem_early'")))
+                        .isEqualTo("executions\tcancellations\n1\t1\n");
+                assertThat(print(active)).isEqualTo("active\n0\n");
+
+                // the only connection of the pool is back although the result wasn't read to the end
+                assertThat(print(compiler.compile("select * from jdbc('mem_early','select X from system_range(1, 2)')")))
+                        .isEqualTo("X\n1\n2\n");
+            }
+        }
+    }
+
+    @Test
+    void testH2JdbcMaxRows(@TempDir Path tempDir) throws Exception{
+        DefaultCairoConfiguration configuration = new DefaultCairoConfiguration(tempDir.toAbsolutePath().toString());
+        try (CairoEngine engine = new CairoEngine(configuration)){
+            try (SqlCompiler compiler = new SqlCompiler(engine)){
+                compiler.compile("select jdbc_pool_init(select 'mem_max_rows' name,'jdbc:h2:mem:max_rows' url, " +
+                        "cast('' as STRING) user, cast('' as STRING) password, cast(3 as long) max_rows " +
+                        "from long_sequence(1)) from long_sequence(1)");
+                compiler.compile("select jdbc_pool_init(select 'mem_max_rows_batch' name,'jdbc:h2:mem:max_rows' url, " +
+                        "cast('' as STRING) user, cast('' as STRING) password, cast(3 as long) max_rows, 2 batch_size " +
+                        "from long_sequence(1)) from long_sequence(1)");
+
+                // result that fits the limit isn't reported
+                assertThat(print(compiler.compile("select * from jdbc('mem_max_rows','select X from system_range(1, 3)')")))
+                        .isEqualTo("X\n1\n2\n3\n");
+                assertThat(print(compiler.compile("select * from jdbc('mem_max_rows','select X from system_range(1, 5)')")))
+                        .isEqualTo("X\n1\n2\n3\n");
+                assertThat(print(compiler.compile("select * from jdbc('mem_max_rows_batch','select X from system_range(1, 5)')")))
+                        .isEqualTo("X\n1\n2\n3\n");
+                assertThat(print(compiler.compile("select pool, sum(truncations) truncations from jdbc_stats() " +
+                        "where pool = 'mem_max_rows' or pool = 'mem_max_rows_batch' order by pool")))
+                        .isEqualTo("pool\ttruncations\nmem_max_rows\t1\nmem_max_rows_batch\t1\n");
+            }
+        }
+    }
+
+    @Test
+    void testH2JdbcBatchedSelect(@TempDir Path tempDir) throws Exception{
+        DefaultCairoConfiguration configuration = new DefaultCairoConfiguration(tempDir.toAbsolutePath().toString());
+        try (CairoEngine engine = new CairoEngine(configuration)){
+            try (SqlCompiler compiler = new SqlCompiler(engine)){
+                compiler.compile("select jdbc_pool_init(select 'mem_batch' name,'jdbc:h2:mem:batch' url, " +
+                        "cast('' as STRING) user, cast('' as STRING) password, 2 batch_size from long_sequence(1)) from long_sequence(1)");
+                CompiledQuery query = compiler.compile("select * from jdbc('mem_batch'," +
+                        "'select X, cast(X as varchar) S, cast(X * 10 as int) I from system_range(1, 5)')");
+
+                String expected = "X\tS\tI\n" +
+                        "1\t1\t10\n" +
+                        "2\t2\t20\n" +
+                        "3\t3\t30\n" +
+                        "4\t4\t40\n" +
+                        "5\t5\t50\n";
+                assertThat(print(query)).isEqualTo(expected);
+                assertThat(print(query)).isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    void testH2JdbcStringColumns(@TempDir Path tempDir) throws Exception{
+        DefaultCairoConfiguration configuration = new DefaultCairoConfiguration(tempDir.toAbsolutePath().toString());
+        try (CairoEngine engine = new CairoEngine(configuration)){
+            try (SqlCompiler compiler = new SqlCompiler(engine)){
+                compiler.compile("select jdbc_pool_init(select 'mem_str' name,'jdbc:h2:mem:str' url, " +
+                        "cast('' as STRING) user, cast('' as STRING) password from long_sequence(1)) from long_sequence(1)");
+                CompiledQuery query = compiler.compile("select S, length(S) L, C from jdbc('mem_str'," +
+                        "'select cast(X as varchar) S, cast(repeat(''ab'', X) as clob) C from system_range(1, 3)')");
+
+                assertThat(print(query)).isEqualTo(
+                        "S\tL\tC\n" +
+                                "1\t1\tab\n" +
+                                "2\t1\tabab\n" +
+                                "3\t1\tababab\n");
+            }
+        }
+    }
+
+    @Test
+    void testH2JdbcPartitionedSelect(@TempDir Path tempDir) throws Exception{
+        DefaultCairoConfiguration configuration = new DefaultCairoConfiguration(tempDir.toAbsolutePath().toString());
+        try (CairoEngine engine = new CairoEngine(configuration)){
+            try (SqlCompiler compiler = new SqlCompiler(engine)){
+                compiler.compile("select jdbc_pool_init(select 'mem_part' name,'jdbc:h2:mem:part' url, " +
+                        "cast('' as STRING) user, cast('' as STRING) password, 4 max_pool_size from long_sequence(1)) from long_sequence(1)");
+                CompiledQuery query = compiler.compile("select count() count, sum(X) sum from jdbc_partitioned('mem_part'," +
+                        "'select X from system_range(1, 1000)', 'X', 100, 900, 4)");
+
+                assertThat(print(query)).isEqualTo(
+                        "count\tsum\n" +
+                                "1000\t500500\n");
+
+                // bounds of the whole LONG range don't overflow, column name is quoted as the remote database reports it
+                CompiledQuery wide = compiler.compile("select count() count, sum(value) sum from jdbc_partitioned('mem_part'," +
+                        "'select X \"value\" from system_range(1, 1000)', 'VALUE', -9223372036854775807, 9223372036854775807, 4)");
+                assertThat(print(wide)).isEqualTo(
+                        "count\tsum\n" +
+                                "1000\t500500\n");
+            }
+        }
+    }
+
+    @Test
+    void testH2JdbcPrefetchedSelect(@TempDir Path tempDir) throws Exception{
+        DefaultCairoConfiguration configuration = new DefaultCairoConfiguration(tempDir.toAbsolutePath().toString());
+        try (CairoEngine engine = new CairoEngine(configuration)){
+            try (SqlCompiler compiler = new SqlCompiler(engine)){
+                compiler.compile("select jdbc_pool_init(select 'mem_prefetch' name,'jdbc:h2:mem:prefetch' url, " +
+                        "cast('' as STRING) user, cast('' as STRING) password, 3 batch_size, 1 prefetch_depth " +
+                        "from long_sequence(1)) from long_sequence(1)");
+                CompiledQuery query = compiler.compile("select * from jdbc('mem_prefetch'," +
+                        "'select X from system_range(1, 5)')");
+
+                String expected = "X\n1\n2\n3\n4\n5\n";
+                assertThat(print(query)).isEqualTo(expected);
+                assertThat(print(query)).isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    void testH2JdbcBoundParameters(@TempDir Path tempDir) throws Exception{
+        DefaultCairoConfiguration configuration = new DefaultCairoConfiguration(tempDir.toAbsolutePath().toString());
+        try (CairoEngine engine = new CairoEngine(configuration)){
+            try (SqlCompiler compiler = new SqlCompiler(engine)){
+                compiler.compile("select jdbc_pool_init(select 'mem_bind' name,'jdbc:h2:mem:bind' url, " +
+                        "cast('' as STRING) user, cast('' as STRING) password, 8 statement_cache_size " +
+                        "from long_sequence(1)) from long_sequence(1)");
+                CompiledQuery query = compiler.compile("select * from jdbc('mem_bind'," +
+                        "'select X, cast(? as varchar) Y from system_range(1, 10) where X > ? and X <= ?', 'y', 3, 5)");
+
+                String expected = "X\tY\n4\ty\n5\ty\n";
+                assertThat(print(query)).isEqualTo(expected);
+                assertThat(print(query)).isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    void testH2JdbcCachedSelect(@TempDir Path tempDir) throws Exception{
+        DefaultCairoConfiguration configuration = new DefaultCairoConfiguration(tempDir.toAbsolutePath().toString());
+        try (CairoEngine engine = new CairoEngine(configuration);
+             Connection connection = DriverManager.getConnection("jdbc:h2:mem:cached;DB_CLOSE_DELAY=-1")){
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("create table dim(id int, name varchar)");
+                statement.execute("insert into dim values(1, 'a'), (2, 'b')");
+            }
+            try (SqlCompiler compiler = new SqlCompiler(engine)){
+                compiler.compile("select jdbc_pool_init(select 'mem_cached' name,'jdbc:h2:mem:cached' url, " +
+                        "cast('' as STRING) user, cast('' as STRING) password from long_sequence(1)) from long_sequence(1)");
+                CompiledQuery query = compiler.compile("select * from jdbc_cached('mem_cached','select * from dim order by id')");
+
+                String expected = "ID\tNAME\n1\ta\n2\tb\n";
+                assertThat(print(query)).isEqualTo(expected);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("insert into dim values(3, 'c')");
+                }
+                assertThat(print(query)).isEqualTo(expected);
+
+                try (RecordCursor cursor = query.getRecordCursorFactory().getCursor()){
+                    assertThat(cursor.hasNext()).isTrue();
+                    long rowId = cursor.getRecord().getRowId();
+                    compiler.compile("select jdbc_metadata_invalidate('mem_cached') from long_sequence(1)");
+                    // open cursor keeps its version of the result, row ids stay valid across rewinds
+                    cursor.toTop();
+                    assertThat(cursor.size()).isEqualTo(2);
+                    cursor.recordAt(rowId);
+                    assertThat(cursor.getRecord().getInt(0)).isEqualTo(1);
+                }
+                assertThat(print(query)).isEqualTo(expected + "3\tc\n");
+            }
+        }
+    }
+
+    @Test
+    void testH2JdbcMaterializedSelect(@TempDir Path tempDir) throws Exception{
+        DefaultCairoConfiguration configuration = new DefaultCairoConfiguration(tempDir.toAbsolutePath().toString());
+        try (CairoEngine engine = new CairoEngine(configuration)){
+            try (SqlCompiler compiler = new SqlCompiler(engine)){
+                compiler.compile("select jdbc_pool_init(select 'mem_mat' name,'jdbc:h2:mem:mat' url, " +
+                        "cast('' as STRING) user, cast('' as STRING) password, 2 batch_size, true materialize " +
+                        "from long_sequence(1)) from long_sequence(1)");
+                CompiledQuery query = compiler.compile("select * from jdbc('mem_mat'," +
+                        "'select X, cast(X as varchar) S from system_range(1, 5)') order by X desc");
+
+                String expected = "X\tS\n5\t5\n4\t4\n3\t3\n2\t2\n1\t1\n";
+                assertThat(print(query)).isEqualTo(expected);
+                assertThat(print(query)).isEqualTo(expected);
+
+                // spool is bounded, result above the limit fails instead of exhausting the heap
+                compiler.compile("select jdbc_pool_init(select 'mem_mat' name,'jdbc:h2:mem:mat' url, " +
+                        "cast('' as STRING) user, cast('' as STRING) password, 2 batch_size, true materialize, " +
+                        "cast(1024 as long) spool_memory_limit from long_sequence(1)) from long_sequence(1)");
+                CompiledQuery large = compiler.compile("select * from jdbc('mem_mat'," +
+                        "'select X, cast(X as varchar) S from system_range(1, 1000)')");
+                assertThatThrownBy(() -> print(large)).hasMessageContaining("spool memory limit");
+            }
+        }
+    }
+
+    @Test
+    void testH2JdbcCopy(@TempDir Path tempDir) throws Exception{
+        DefaultCairoConfiguration configuration = new DefaultCairoConfiguration(tempDir.toAbsolutePath().toString());
+        ConnectionFunctionFactory plugin = new ConnectionFunctionFactory();
+        try (CairoEngine engine = new CairoEngine(configuration)){
+            plugin.init(engine);
+            try (SqlCompiler compiler = new SqlCompiler(engine)){
+                compiler.compile("select jdbc_pool_init(select 'mem_copy' name,'jdbc:h2:mem:copy' url, " +
+                        "cast('' as STRING) user, cast('' as STRING) password, 16 batch_size " +
+                        "from long_sequence(1)) from long_sequence(1)");
+                compiler.compile("create table copy_target (X long, S symbol, V double)");
+                CompiledQuery query = compiler.compile("select rows, commits from jdbc_copy('mem_copy'," +
+                        "'select X, cast(X as varchar) S from system_range(1, 100)', 'copy_target', 30)");
+
+                try (RecordCursor cursor = query.getRecordCursorFactory().getCursor()){
+                    assertThat(cursor.hasNext()).isTrue();
+                    // rewinding returns the report again without copying the rows twice
+                    cursor.toTop();
+                    assertThat(cursor.hasNext()).isTrue();
+                    assertThat(cursor.getRecord().getLong(0)).isEqualTo(100);
+                    assertThat(cursor.getRecord().getLong(1)).isEqualTo(4);
+                }
+                assertThat(print(compiler.compile("select count() count, sum(X) sum from copy_target")))
+                        .isEqualTo("count\tsum\n100\t5050\n");
+            } finally {
+                plugin.close();
+            }
+        }
+    }
+
+    @Test
+    @Timeout(30)
+    void testH2JdbcExportUnreachableTarget(@TempDir Path tempDir) throws Exception{
+        DefaultCairoConfiguration configuration = new DefaultCairoConfiguration(tempDir.toAbsolutePath().toString());
+        try (CairoEngine engine = new CairoEngine(configuration)){
+            try (SqlCompiler compiler = new SqlCompiler(engine)){
+                // database doesn't exist, every connection attempt of the writers fails
+                compiler.compile("select jdbc_pool_init(select 'mem_export_down' name," +
+                        "'jdbc:h2:mem:export_down;IFEXISTS=TRUE' url, cast('' as STRING) user, cast('' as STRING) password, " +
+                        "cast(-1 as long) initialization_fail_timeout, cast(250 as long) connection_timeout, 2 max_pool_size, " +
+                        "7 export_batch_size, 2 export_writers from long_sequence(1)) from long_sequence(1)");
+                CompiledQuery query = compiler.compile("select rows from jdbc_export('mem_export_down'," +
+                        "(select x, cast(x as string) s from long_sequence(1000)), 'rollup')");
+
+                assertThatThrownBy(() -> print(query)).hasMessageContaining("export_down");
+            }
+        }
+    }
+
+    @Test
+    void testH2JdbcExport(@TempDir Path tempDir) throws Exception{
+        DefaultCairoConfiguration configuration = new DefaultCairoConfiguration(tempDir.toAbsolutePath().toString());
+        try (CairoEngine engine = new CairoEngine(configuration);
+             Connection connection = DriverManager.getConnection("jdbc:h2:mem:export;DB_CLOSE_DELAY=-1")){
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("create table rollup(x bigint, s varchar)");
+            }
+            try (SqlCompiler compiler = new SqlCompiler(engine)){
+                compiler.compile("select jdbc_pool_init(select 'mem_export' name,'jdbc:h2:mem:export' url, " +
+                        "cast('' as STRING) user, cast('' as STRING) password, 2 max_pool_size, 7 export_batch_size, " +
+                        "true export_multi_row, 2 export_writers from long_sequence(1)) from long_sequence(1)");
+                CompiledQuery query = compiler.compile("select rows from jdbc_export('mem_export'," +
+                        "(select x, cast(x as string) s from long_sequence(100)), 'public.rollup')");
+
+                try (RecordCursor cursor = query.getRecordCursorFactory().getCursor()){
+                    assertThat(cursor.hasNext()).isTrue();
+                    // rewinding returns the report again without writing the rows twice
+                    cursor.toTop();
+                    assertThat(cursor.hasNext()).isTrue();
+                    assertThat(cursor.getRecord().getLong(0)).isEqualTo(100);
+                }
+            }
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery("select count(*), sum(x), count(s) from rollup")) {
+                assertThat(resultSet.next()).isTrue();
+                assertThat(resultSet.getLong(1)).isEqualTo(100);
+                assertThat(resultSet.getLong(2)).isEqualTo(5050);
+                assertThat(resultSet.getLong(3)).isEqualTo(100);
+            }
+        }
+    }
+
+    @Test
+    void testH2JdbcSync(@TempDir Path tempDir) throws Exception{
+        DefaultCairoConfiguration configuration = new DefaultCairoConfiguration(tempDir.toAbsolutePath().toString());
+        ConnectionFunctionFactory plugin = new ConnectionFunctionFactory();
+        try (CairoEngine engine = new CairoEngine(configuration);
+             Connection connection = DriverManager.getConnection("jdbc:h2:mem:sync;DB_CLOSE_DELAY=-1")){
+            plugin.init(engine);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("create table events(id bigint, v double)");
+                statement.execute("insert into events select x, x / 2.0 from system_range(1, 10)");
+            }
+            try (SqlCompiler compiler = new SqlCompiler(engine)){
+                compiler.compile("select jdbc_pool_init(select 'mem_sync' name,'jdbc:h2:mem:sync' url, " +
+                        "cast('' as STRING) user, cast('' as STRING) password from long_sequence(1)) from long_sequence(1)");
+                compiler.compile("create table sync_target (ID long, V double)");
+                String sync = "select rows, watermark from jdbc_sync('mem_sync', 'select id, v from events', 'ID', 'sync_target')";
+
+                CompiledQuery first = compiler.compile(sync);
+                try (RecordCursor cursor = first.getRecordCursorFactory().getCursor()){
+                    assertThat(cursor.hasNext()).isTrue();
+                    assertThat(cursor.getRecord().getLong(0)).isEqualTo(10);
+                    // rewinding returns the report again without another sync
+                    cursor.toTop();
+                    assertThat(cursor.hasNext()).isTrue();
+                    assertThat(cursor.getRecord().getLong(0)).isEqualTo(10);
+                }
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("insert into events select x, x / 2.0 from system_range(11, 15)");
+                }
+                assertThat(print(compiler.compile(sync))).isEqualTo("rows\twatermark\n5\t15\n");
+                assertThat(print(compiler.compile(sync))).isEqualTo("rows\twatermark\n0\t15\n");
+                assertThat(print(compiler.compile("select count() count, sum(ID) sum from sync_target")))
+                        .isEqualTo("count\tsum\n15\t120\n");
+
+                // another query has its own mark
+                assertThat(print(compiler.compile("select rows, watermark from jdbc_sync('mem_sync', " +
+                        "'select id, v from events where id > 12', 'ID', 'sync_target')"))).isEqualTo("rows\twatermark\n3\t15\n");
+
+                // compiling doesn't start the schedule, running the query does
+                CompiledQuery schedule = compiler.compile("select jdbc_sync_schedule('mem_sync', 'select id, v from events', " +
+                        "'ID', 'sync_target', 20) from long_sequence(1)");
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("insert into events select x, x / 2.0 from system_range(16, 17)");
+                }
+                CompiledQuery count = compiler.compile("select count() count from sync_target");
+                Thread.sleep(200);
+                assertThat(print(count)).isEqualTo("count\n18\n");
+                print(schedule);
+                for (long deadline = System.currentTimeMillis() + 5_000;
+                     !print(count).equals("count\n20\n") && System.currentTimeMillis() < deadline; ) {
+                    Thread.sleep(20);
+                }
+                assertThat(print(count)).isEqualTo("count\n20\n");
+                print(compiler.compile("select jdbc_sync_schedule('mem_sync', 'select id, v from events', " +
+                        "'ID', 'sync_target', 0) from long_sequence(1)"));
+            } finally {
+                plugin.close();
+            }
+        }
+    }
+
+    @Test
+    void testH2JdbcStats(@TempDir Path tempDir) throws Exception{
+        DefaultCairoConfiguration configuration = new DefaultCairoConfiguration(tempDir.toAbsolutePath().toString());
+        try (CairoEngine engine = new CairoEngine(configuration)){
+            try (SqlCompiler compiler = new SqlCompiler(engine)){
+                compiler.compile("select jdbc_pool_init(select 'mem_stats' name,'jdbc:h2:mem:stats' url, " +
+                        "cast('' as STRING) user, cast('' as STRING) password, 2 batch_size from long_sequence(1)) from long_sequence(1)");
+                CompiledQuery query = compiler.compile("select * from jdbc('mem_stats','select X from system_range(1, 5)')");
+                print(query);
+                print(query);
+
+                assertThat(print(compiler.compile("select query, executions, errors, rows, bytes from jdbc_stats() " +
+                        "where pool = 'mem_stats'")))
+                        .isEqualTo("query\texecutions\terrors\trows\tbytes\n" +
+                                "select X from system_range(?, ?)\t2\t0\t10\t80\n");
+
+                // row by row reads count fixed width values per row and strings as they are read
+                compiler.compile("select jdbc_pool_init(select 'mem_stats_rows' name,'jdbc:h2:mem:stats' url, " +
+                        "cast('' as STRING) user, cast('' as STRING) password from long_sequence(1)) from long_sequence(1)");
+                print(compiler.compile("select * from jdbc('mem_stats_rows','select X, cast(X as varchar) S from system_range(1, 5)')"));
+                assertThat(print(compiler.compile("select rows, bytes from jdbc_stats() where pool = 'mem_stats_rows'")))
+                        .isEqualTo("rows\tbytes\n5\t50\n");
+            }
+        }
+    }
+
+    @Test
+    void testStreamingFetchSizeAndAutoCommit() throws Exception{
+        for (String product : new String[]{"PostgreSQL", "MySQL"}) {
+            List<String> calls = Collections.synchronizedList(new ArrayList<>());
+            HikariConfig config = new HikariConfig();
+            config.setDataSource(reportingAs(product, "jdbc:h2:mem:streaming", calls));
+            config.setMaximumPoolSize(1);
+            try (HikariDataSource dataSource = new HikariDataSource(config)) {
+                JdbcPool pool = new JdbcPool("mem_streaming", dataSource, "streaming");
+                pool.setStreaming(true);
+                calls.clear();
+                try (StatementHolder statementHolder = new StatementHolder(pool, "select X from system_range(1, 3)")) {
+                    statementHolder.createUnlimitedResultSet();
+                    int rows = 0;
+                    while (statementHolder.next()) {
+                        rows++;
+                    }
+                    assertThat(rows).isEqualTo(3);
+                }
+                if (product.equals("PostgreSQL")) {
+                    // cursor fetch inside of a transaction, committed by restoring autocommit instead of rolled back by the pool
+                    assertThat(calls).containsExactly("setAutoCommit(false)", "setFetchSize(" + StatementHolder.DEFAULT_STREAMING_FETCH_SIZE + ")",
+                            "executeQuery(autoCommit=false)", "setAutoCommit(true)");
+                } else {
+                    assertThat(calls).containsExactly("setFetchSize(" + Integer.MIN_VALUE + ")", "executeQuery(autoCommit=true)");
+                }
+                try (Connection connection = dataSource.getConnection()) {
+                    assertThat(connection.getAutoCommit()).isTrue();
+                }
+            }
+        }
+    }
+
+    @Test
+    void testH2JdbcPoolReconfiguration(@TempDir Path tempDir) throws Exception{
+        DefaultCairoConfiguration configuration = new DefaultCairoConfiguration(tempDir.toAbsolutePath().toString());
+        try (CairoEngine engine = new CairoEngine(configuration)){
+            try (SqlCompiler compiler = new SqlCompiler(engine)){
+                String init = "select jdbc_pool_init(select 'mem_pools' name,'jdbc:h2:mem:%s' url, " +
+                        "cast('' as STRING) user, cast('' as STRING) password, %d max_pool_size from long_sequence(1)) from long_sequence(1)";
+                String pools = "select name, max_pool_size, minimum_idle from jdbc_pools() where name = 'mem_pools'";
+                compiler.compile(String.format(init, "pools", 2));
+                CompiledQuery query = compiler.compile("select * from jdbc('mem_pools','select database() D')");
+                CompiledQuery cached = compiler.compile("select * from jdbc_cached('mem_pools','select database() D')");
+                assertThat(print(query)).isEqualTo("D\nPOOLS\n");
+                assertThat(print(cached)).isEqualTo("D\nPOOLS\n");
+                assertThat(print(compiler.compile(pools))).isEqualTo("name\tmax_pool_size\tminimum_idle\nmem_pools\t2\t2\n");
+
+                compiler.compile(String.format(init, "pools", 4));
+                assertThat(print(compiler.compile(pools))).isEqualTo("name\tmax_pool_size\tminimum_idle\nmem_pools\t4\t4\n");
+
+                compiler.compile("select jdbc_pool_resize('mem_pools', 3, 1) from long_sequence(1)");
+                assertThat(print(compiler.compile(pools))).isEqualTo("name\tmax_pool_size\tminimum_idle\nmem_pools\t3\t1\n");
+
+                // new url swaps the data source under the already compiled query
+                compiler.compile(String.format(init, "pools_swapped", 2));
+                assertThat(print(query)).isEqualTo("D\nPOOLS_SWAPPED\n");
+                // result cached before the swap is dropped with the old data source
+                assertThat(print(cached)).isEqualTo("D\nPOOLS_SWAPPED\n");
+
+                compiler.compile("select jdbc_pool_close('mem_pools') from long_sequence(1)");
+                assertThat(print(compiler.compile(pools))).isEqualTo("name\tmax_pool_size\tminimum_idle\n");
+                assertThatThrownBy(() -> compiler.compile("select * from jdbc('mem_pools','select 1')"))
+                        .hasMessageContaining("not found")
+                        .isInstanceOfSatisfying(SqlException.class, e -> assertThat(e.getPosition()).isEqualTo(19));
+            }
+        }
+    }
+
+    @Test
+    void testPoolConfigWarmup(@TempDir Path tempDir) throws Exception{
+        Path conf = Files.createDirectories(tempDir.resolve("conf"));
+        String pool = "select jdbc_pool_init(select '%s' name, 'jdbc:h2:mem:%s' url, cast('' as STRING) user, " +
+                "cast('' as STRING) password, 4 max_pool_size, 2 minimum_idle from long_sequence(1)) from long_sequence(1);\n";
+        Files.write(conf.resolve("jdbc_pools.sql"), ("-- pools created on startup\n" +
+                String.format(pool, "conf_a", "conf_a") + String.format(pool, "conf_b", "conf_b")).getBytes(StandardCharsets.UTF_8));
+        DefaultCairoConfiguration configuration = new DefaultCairoConfiguration(
+                Files.createDirectories(tempDir.resolve("db")).toAbsolutePath().toString());
+        ConnectionFunctionFactory plugin = new ConnectionFunctionFactory();
+        try (CairoEngine engine = new CairoEngine(configuration)){
+            plugin.init(engine);
+            try (SqlCompiler compiler = new SqlCompiler(engine)){
+                assertThat(print(compiler.compile("select name, minimum_idle, ready from jdbc_pools() " +
+                        "where name in ('conf_a', 'conf_b') order by name")))
+                        .isEqualTo("name\tminimum_idle\tready\n" +
+                                "conf_a\t2\ttrue\n" +
+                                "conf_b\t2\ttrue\n");
+            } finally {
+                plugin.close();
+            }
+        }
+    }
+
+    @Test
+    void testH2JdbcPoolGroup(@TempDir Path tempDir) throws Exception{
+        DefaultCairoConfiguration configuration = new DefaultCairoConfiguration(tempDir.toAbsolutePath().toString());
+        try (CairoEngine engine = new CairoEngine(configuration)){
+            try (SqlCompiler compiler = new SqlCompiler(engine)){
+                String init = "select jdbc_pool_init(select '%s' name,'jdbc:h2:mem:%s' url, " +
+                        "cast('' as STRING) user, cast('' as STRING) password from long_sequence(1)) from long_sequence(1)";
+                compiler.compile(String.format(init, "grp_a", "grp_a"));
+                compiler.compile(String.format(init, "grp_b", "grp_b"));
+                compiler.compile("select jdbc_pool_group('grp', 'grp_a, grp_b', 'round_robin') from long_sequence(1)");
+                CompiledQuery query = compiler.compile("select * from jdbc('grp','select database() D')");
+
+                // describing the query took the first turn
+                assertThat(print(query)).isEqualTo("D\nGRP_B\n");
+                assertThat(print(query)).isEqualTo("D\nGRP_A\n");
+                assertThat(print(query)).isEqualTo("D\nGRP_B\n");
+                assertThat(print(query)).isEqualTo("D\nGRP_A\n");
+
+                compiler.compile("select jdbc_pool_close('grp_b') from long_sequence(1)");
+                assertThat(print(query)).isEqualTo("D\nGRP_A\n");
+                assertThat(print(query)).isEqualTo("D\nGRP_A\n");
+
+                assertThatThrownBy(() -> compiler.compile("select jdbc_pool_group('grp', 'grp_a', 'random') from long_sequence(1)"))
+                        .hasMessageContaining("unknown routing policy");
+                compiler.compile("select jdbc_pool_close('grp') from long_sequence(1)");
+            }
+        }
+    }
+
+    @Test
+    void testH2JdbcLazyConnection(@TempDir Path tempDir) throws Exception{
+        DefaultCairoConfiguration configuration = new DefaultCairoConfiguration(tempDir.toAbsolutePath().toString());
+        try (CairoEngine engine = new CairoEngine(configuration)){
+            try (SqlCompiler compiler = new SqlCompiler(engine)){
+                compiler.compile("select jdbc_pool_init(select 'mem_lazy' name,'jdbc:h2:mem:lazy' url, " +
+                        "cast('' as STRING) user, cast('' as STRING) password, 1 max_pool_size, " +
+                        "cast(250 as long) connection_timeout from long_sequence(1)) from long_sequence(1)");
+                CompiledQuery active = compiler.compile("select active from jdbc_pools() where name = 'mem_lazy'");
+                // both queries share the only connection of the pool
+                CompiledQuery first = compiler.compile("select * from jdbc('mem_lazy','select X from system_range(1, 3)')");
+                CompiledQuery second = compiler.compile("select * from jdbc('mem_lazy','select X from system_range(4, 5)')");
+                assertThat(print(active)).isEqualTo("active\n0\n");
+
+                try (RecordCursor cursor = first.getRecordCursorFactory().getCursor()){
+                    assertThat(cursor.hasNext()).isTrue();
+                    assertThat(print(active)).isEqualTo("active\n1\n");
+                    while (cursor.hasNext()) {
+                        // drain
+                    }
+                    // returned on the last row while the cursor is still open
+                    assertThat(print(active)).isEqualTo("active\n0\n");
+                    assertThat(print(second)).isEqualTo("X\n4\n5\n");
+                }
+            }
+        }
+    }
+
+    @Test
+    void testH2JdbcSymbolsAndNumericTypes(@TempDir Path tempDir) throws Exception{
+        DefaultCairoConfiguration configuration = new DefaultCairoConfiguration(tempDir.toAbsolutePath().toString());
+        try (CairoEngine engine = new CairoEngine(configuration);
+             Connection connection = DriverManager.getConnection("jdbc:h2:mem:sym;DB_CLOSE_DELAY=-1")){
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("create table orders(status varchar, amount decimal(12, 0), price decimal(10, 2), " +
+                        "flag tinyint, code char(1))");
+                statement.execute("insert into orders select case when mod(x, 3) = 0 then 'done' else 'open' end, " +
+                        "x, x / 4.0, x, 'y' from system_range(1, 9)");
+            }
+            try (SqlCompiler compiler = new SqlCompiler(engine)){
+                compiler.compile("select jdbc_pool_init(select 'mem_sym' name,'jdbc:h2:mem:sym' url, " +
+                        "cast('' as STRING) user, cast('' as STRING) password, 'status' symbol_columns, " +
+                        "4 batch_size from long_sequence(1)) from long_sequence(1)");
+                CompiledQuery query = compiler.compile("select * from jdbc('mem_sym','select * from orders')");
+                RecordMetadata metadata = query.getRecordCursorFactory().getMetadata();
+                assertThat(metadata.getColumnType(0)).isEqualTo(ColumnType.SYMBOL);
+                assertThat(metadata.getColumnType(1)).isEqualTo(ColumnType.LONG);
+                assertThat(metadata.getColumnType(2)).isEqualTo(ColumnType.DOUBLE);
+                assertThat(metadata.getColumnType(3)).isEqualTo(ColumnType.BYTE);
+                assertThat(metadata.getColumnType(4)).isEqualTo(ColumnType.CHAR);
+
+                // grouped on dictionary keys of the symbol column
+                assertThat(print(compiler.compile("select status state, count() count, sum(amount) total " +
+                        "from jdbc('mem_sym','select * from orders') order by state")))
+                        .isEqualTo("state\tcount\ttotal\n" +
+                                "done\t3\t18\n" +
+                                "open\t6\t27\n");
+            }
+        }
+    }
+
+    @Test
+    void testH2JdbcSymbolSampling(@TempDir Path tempDir) throws Exception{
+        DefaultCairoConfiguration configuration = new DefaultCairoConfiguration(tempDir.toAbsolutePath().toString());
+        try (CairoEngine engine = new CairoEngine(configuration);
+             Connection connection = DriverManager.getConnection("jdbc:h2:mem:sample;DB_CLOSE_DELAY=-1")){
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("create table events(kind varchar)");
+                statement.execute("insert into events select case when mod(x, 2) = 0 then 'even' else 'odd' end " +
+                        "from system_range(1, 100)");
+            }
+            try (SqlCompiler compiler = new SqlCompiler(engine)){
+                compiler.compile("select jdbc_pool_init(select 'mem_sample' name,'jdbc:h2:mem:sample' url, " +
+                        "cast('' as STRING) user, cast('' as STRING) password, 1000 symbol_sample_rows " +
+                        "from long_sequence(1)) from long_sequence(1)");
+                String select = "select * from jdbc('mem_sample','select kind from events')";
+                assertThat(compiler.compile(select).getRecordCursorFactory().getMetadata().getColumnType(0))
+                        .isEqualTo(ColumnType.SYMBOL);
+
+                // sampled once per query text, the new distinct values aren't seen until invalidated
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("insert into events select 'kind' || x from system_range(1, 100)");
+                }
+                assertThat(compiler.compile(select).getRecordCursorFactory().getMetadata().getColumnType(0))
+                        .isEqualTo(ColumnType.SYMBOL);
+                compiler.compile("select jdbc_metadata_invalidate('mem_sample') from long_sequence(1)");
+                assertThat(compiler.compile(select).getRecordCursorFactory().getMetadata().getColumnType(0))
+                        .isEqualTo(ColumnType.STRING);
+            }
+        }
+    }
+
+    @Test
+    void testH2JdbcBinary(@TempDir Path tempDir) throws Exception{
+        DefaultCairoConfiguration configuration = new DefaultCairoConfiguration(tempDir.toAbsolutePath().toString());
+        try (CairoEngine engine = new CairoEngine(configuration);
+             Connection connection = DriverManager.getConnection("jdbc:h2:mem:bin;DB_CLOSE_DELAY=-1")){
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("create table payloads(id int, payload blob)");
+                statement.execute("insert into payloads values(1, X'0A0B0C'), (2, null), (3, X'" +
+                        String.join("", Collections.nCopies(10000, "FF")) + "')");
+            }
+            try (SqlCompiler compiler = new SqlCompiler(engine)){
+                compiler.compile("select jdbc_pool_init(select 'mem_bin' name,'jdbc:h2:mem:bin' url, " +
+                        "cast('' as STRING) user, cast('' as STRING) password from long_sequence(1)) from long_sequence(1)");
+                CompiledQuery query = compiler.compile("select * from jdbc('mem_bin','select * from payloads order by id')");
+                try (RecordCursor cursor = query.getRecordCursorFactory().getCursor()){
+                    Record record = cursor.getRecord();
+                    assertThat(cursor.hasNext()).isTrue();
+                    assertThat(record.getBinLen(1)).isEqualTo(3);
+                    assertThat(record.getBin(1).byteAt(2)).isEqualTo((byte) 0x0C);
+                    assertThat(cursor.hasNext()).isTrue();
+                    assertThat(record.getBinLen(1)).isEqualTo(-1);
+                    assertThat(record.getBin(1)).isNull();
+                    assertThat(cursor.hasNext()).isTrue();
+                    // larger than the value of the first row, the buffer grows
+                    assertThat(record.getBin(1).length()).isEqualTo(10000);
+                    assertThat(record.getBin(1).byteAt(9999)).isEqualTo((byte) 0xFF);
+                    assertThat(cursor.hasNext()).isFalse();
+                }
+            }
+        }
+    }
+
+    @Test
+    void testH2JdbcTemporalMicros(@TempDir Path tempDir) throws Exception{
+        DefaultCairoConfiguration configuration = new DefaultCairoConfiguration(tempDir.toAbsolutePath().toString());
+        try (CairoEngine engine = new CairoEngine(configuration);
+             Connection connection = DriverManager.getConnection("jdbc:h2:mem:temporal;DB_CLOSE_DELAY=-1")){
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("create table ticks(ts timestamp(6), day date, tz timestamp(6) with time zone)");
+                statement.execute("insert into ticks values('2020-03-29 01:30:00.123456', '2020-03-29', " +
+                        "'2020-01-02 03:04:05.654321+02'), (null, null, null)");
+            }
+            try (SqlCompiler compiler = new SqlCompiler(engine)){
+                compiler.compile("select jdbc_pool_init(select 'mem_temporal' name,'jdbc:h2:mem:temporal' url, " +
+                        "cast('' as STRING) user, cast('' as STRING) password, 'Europe/Berlin' timezone, 2 batch_size " +
+                        "from long_sequence(1)) from long_sequence(1)");
+                CompiledQuery query = compiler.compile("select * from jdbc('mem_temporal','select * from ticks')");
+                try (RecordCursor cursor = query.getRecordCursorFactory().getCursor()){
+                    Record record = cursor.getRecord();
+                    assertThat(cursor.hasNext()).isTrue();
+                    // wall time of the pool zone, sub-millisecond digits are kept
+                    assertThat(record.getTimestamp(0)).isEqualTo(1585441800123456L);
+                    assertThat(record.getDate(1)).isEqualTo(1585436400000L);
+                    assertThat(record.getTimestamp(2)).isEqualTo(1577927045654321L);
+                    assertThat(cursor.hasNext()).isTrue();
+                    assertThat(record.getTimestamp(0)).isEqualTo(Numbers.LONG_NaN);
+                    assertThat(record.getDate(1)).isEqualTo(Numbers.LONG_NaN);
+                    assertThat(cursor.hasNext()).isFalse();
+                }
+                assertThatThrownBy(() -> compiler.compile("select jdbc_pool_init(select 'mem_temporal' name," +
+                        "'jdbc:h2:mem:temporal' url, cast('' as STRING) user, cast('' as STRING) password, " +
+                        "'Mars/Olympus' timezone from long_sequence(1)) from long_sequence(1)"))
+                        .hasMessageContaining("invalid timezone");
+            }
+        }
+    }
+
+    @Test
+    void testH2JdbcLookup(@TempDir Path tempDir) throws Exception{
+        DefaultCairoConfiguration configuration = new DefaultCairoConfiguration(tempDir.toAbsolutePath().toString());
+        try (CairoEngine engine = new CairoEngine(configuration);
+             Connection connection = DriverManager.getConnection("jdbc:h2:mem:lookup;DB_CLOSE_DELAY=-1")){
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("create table customers(id bigint, name varchar)");
+                statement.execute("insert into customers values(1, 'alice'), (2, 'bob')");
+            }
+            try (SqlCompiler compiler = new SqlCompiler(engine)){
+                compiler.compile("select jdbc_pool_init(select 'mem_lookup' name,'jdbc:h2:mem:lookup' url, " +
+                        "cast('' as STRING) user, cast('' as STRING) password, 100 lookup_cache_size " +
+                        "from long_sequence(1)) from long_sequence(1)");
+                CompiledQuery query = compiler.compile("select x, jdbc_lookup('mem_lookup', " +
+                        "'select name from customers where id = ?', x % 3) name from long_sequence(6)");
+
+                String expected = "x\tname\n" +
+                        "1\talice\n" +
+                        "2\tbob\n" +
+                        "3\t\n" +
+                        "4\talice\n" +
+                        "5\tbob\n" +
+                        "6\t\n";
+                assertThat(print(query)).isEqualTo(expected);
+                assertThat(print(query)).isEqualTo(expected);
+                // one round trip per distinct key, missing key included
+                assertThat(print(compiler.compile("select executions from jdbc_stats() where pool = 'mem_lookup'")))
+                        .isEqualTo("executions\n3\n");
+
+                // misses share one connection, it's returned once the lookup is idle
+                CompiledQuery active = compiler.compile("select active from jdbc_pools() where name = 'mem_lookup'");
+                assertThat(print(active)).isEqualTo("active\n1\n");
+                for (long giveUp = System.currentTimeMillis() + 10_000; !print(active).equals("active\n0\n"); ) {
+                    assertThat(System.currentTimeMillis()).isLessThan(giveUp);
+                    Thread.sleep(50);
+                }
+
+                CompiledQuery byName = compiler.compile("select " +
+                        "jdbc_lookup('mem_lookup', 'select id from customers where name = ?', 'bob') bob, " +
+                        "jdbc_lookup('mem_lookup', 'select id from customers where name = ?', 'carol') carol " +
+                        "from long_sequence(2)");
+                assertThat(print(byName)).isEqualTo("bob\tcarol\n2\t\n2\t\n");
+            }
+        }
+    }
+
+    @Test
+    void testH2JdbcFanout(@TempDir Path tempDir) throws Exception{
+        DefaultCairoConfiguration configuration = new DefaultCairoConfiguration(tempDir.toAbsolutePath().toString());
+        try (CairoEngine engine = new CairoEngine(configuration);
+             Connection shardA = DriverManager.getConnection("jdbc:h2:mem:shard_a;DB_CLOSE_DELAY=-1");
+             Connection shardB = DriverManager.getConnection("jdbc:h2:mem:shard_b;DB_CLOSE_DELAY=-1")){
+            try (Statement a = shardA.createStatement(); Statement b = shardB.createStatement()) {
+                a.execute("create table trades(id int, venue varchar)");
+                a.execute("insert into trades select x, 'a' from system_range(1, 30)");
+                // wider key type on the second shard
+                b.execute("create table trades(id bigint, venue varchar)");
+                b.execute("insert into trades select x, 'b' from system_range(31, 50)");
+            }
+            try (SqlCompiler compiler = new SqlCompiler(engine)){
+                compiler.compile("select jdbc_pool_init(select 'mem_shard_a' name,'jdbc:h2:mem:shard_a' url, " +
+                        "cast('' as STRING) user, cast('' as STRING) password, 8 batch_size from long_sequence(1)) from long_sequence(1)");
+                compiler.compile("select jdbc_pool_init(select 'mem_shard_b' name,'jdbc:h2:mem:shard_b' url, " +
+                        "cast('' as STRING) user, cast('' as STRING) password from long_sequence(1)) from long_sequence(1)");
+                CompiledQuery all = compiler.compile("select count() count, sum(ID) sum from " +
+                        "jdbc_fanout('mem_shard_a, mem_shard_b', 'select id, venue from trades')");
+                CompiledQuery partial = compiler.compile("select count() count, sum(ID) sum from " +
+                        "jdbc_fanout('mem_shard_a, mem_shard_b', 'select id, venue from trades', 1000, 'partial')");
+                assertThat(print(all)).isEqualTo("count\tsum\n50\t1275\n");
+
+                try (Statement b = shardB.createStatement()) {
+                    b.execute("drop table trades");
+                }
+                assertThat(print(partial)).isEqualTo("count\tsum\n30\t465\n");
+                assertThatThrownBy(() -> print(all)).hasMessageContaining("TRADES");
+                assertThatThrownBy(() -> compiler.compile("select * from jdbc_fanout('mem_shard_a, mem_shard_b', " +
+                        "'select id, venue from trades', 1000, 'ignore')"))
+                        .hasMessageContaining("unknown failure policy");
+            }
+        }
+    }
+
+    @Test
+    @Timeout(30)
+    void testH2JdbcFanoutTimeout(@TempDir Path tempDir) throws Exception{
+        DefaultCairoConfiguration configuration = new DefaultCairoConfiguration(tempDir.toAbsolutePath().toString());
+        try (CairoEngine engine = new CairoEngine(configuration);
+             Connection shardA = DriverManager.getConnection("jdbc:h2:mem:slow_a;DB_CLOSE_DELAY=-1");
+             Connection shardB = DriverManager.getConnection("jdbc:h2:mem:slow_b;DB_CLOSE_DELAY=-1")){
+            for (Connection shard : new Connection[]{shardA, shardB}) {
+                try (Statement statement = shard.createStatement()) {
+                    statement.execute("create alias slow_shard for \"" + ConnectionFunctionTest.class.getName() + ".slowShard\"");
+                    statement.execute("create table trades(id int, venue varchar)");
+                }
+            }
+            try (Statement a = shardA.createStatement(); Statement b = shardB.createStatement()) {
+                a.execute("insert into trades select x, 'a' from system_range(1, 30)");
+                b.execute("insert into trades select x, 'b' from system_range(31, 50)");
+            }
+            try (SqlCompiler compiler = new SqlCompiler(engine)){
+                compiler.compile("select jdbc_pool_init(select 'mem_slow_a' name,'jdbc:h2:mem:slow_a' url, " +
+                        "cast('' as STRING) user, cast('' as STRING) password, 2 batch_size from long_sequence(1)) from long_sequence(1)");
+                compiler.compile("select jdbc_pool_init(select 'mem_slow_b' name,'jdbc:h2:mem:slow_b' url, " +
+                        "cast('' as STRING) user, cast('' as STRING) password from long_sequence(1)) from long_sequence(1)");
+                CompiledQuery query = compiler.compile("select * from jdbc_fanout('mem_slow_a, mem_slow_b', " +
+                        "'select id, venue from trades where slow_shard(id) = 0', 200, 'partial')");
+
+                // consumer stalling longer than the timeout doesn't cancel shards waiting for it
+                SLOW_SHARD_MILLIS = 0;
+                try (RecordCursor cursor = query.getRecordCursorFactory().getCursor()){
+                    long count = 0;
+                    while (cursor.hasNext()) {
+                        if (count++ == 0) {
+                            Thread.sleep(500);
+                        }
+                    }
+                    assertThat(count).isEqualTo(50);
+                }
+
+                // shard slow to execute is cancelled, rows of the other one are kept
+                SLOW_SHARD_MILLIS = 100;
+                assertThat(print(compiler.compile("select count() count, sum(ID) sum from " +
+                        "jdbc_fanout('mem_slow_a, mem_slow_b', 'select id, venue from trades where slow_shard(id) = 0', 200, 'partial')")))
+                        .isEqualTo("count\tsum\n30\t465\n");
+                assertThat(print(compiler.compile("select sum(cancellations) cancellations from jdbc_stats() where pool = 'mem_slow_b'")))
+                        .isEqualTo("cancellations\n1\n");
+            }
+        }
+    }
+
+    /**
+     * H2 data source reporting another database product, records the calls streaming depends on.
+     * Fetch size isn't passed to H2, which rejects the negative size of MySQL.
+     */
+    private static DataSource reportingAs(String product, String url, List<String> calls) {
+        org.h2.jdbcx.JdbcDataSource h2 = new org.h2.jdbcx.JdbcDataSource();
+        h2.setURL(url);
+        return proxy(DataSource.class, (proxy, method, args) -> {
+            Object result = invoke(h2, method, args);
+            if (!method.getName().equals("getConnection")) {
+                return result;
+            }
+            Connection connection = (Connection) result;
+            return proxy(Connection.class, (connectionProxy, connectionMethod, connectionArgs) -> {
+                switch (connectionMethod.getName()) {
+                    case "getMetaData":
+                        DatabaseMetaData metaData = connection.getMetaData();
+                        return proxy(DatabaseMetaData.class, (metaDataProxy, metaDataMethod, metaDataArgs) ->
+                                metaDataMethod.getName().equals("getDatabaseProductName") ? product : invoke(metaData, metaDataMethod, metaDataArgs));
+                    case "prepareStatement":
+                        PreparedStatement statement = (PreparedStatement) invoke(connection, connectionMethod, connectionArgs);
+                        return proxy(PreparedStatement.class, (statementProxy, statementMethod, statementArgs) -> {
+                            if (statementMethod.getName().equals("setFetchSize")) {
+                                calls.add("setFetchSize(" + statementArgs[0] + ")");
+                                return null;
+                            }
+                            if (statementMethod.getName().equals("executeQuery")) {
+                                calls.add("executeQuery(autoCommit=" + connection.getAutoCommit() + ")");
+                            }
+                            return invoke(statement, statementMethod, statementArgs);
+                        });
+                    case "setAutoCommit":
+                    case "rollback":
+                        calls.add(connectionMethod.getName() + (connectionArgs != null ? Arrays.toString(connectionArgs).replace('[', '(').replace(']', ')') : ""));
+                        break;
+                    default:
+                        break;
+                }
+                return invoke(connection, connectionMethod, connectionArgs);
+            });
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(ConnectionFunctionTest.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static String print(CompiledQuery query) {
+        StringSink sink = new StringSink();
+        RecordCursorPrinter printer = new RecordCursorPrinter(sink);
+        RecordMetadata metadata = query.getRecordCursorFactory().getMetadata();
+        try (RecordCursor cursor = query.getRecordCursorFactory().getCursor()){
+            printer.print(cursor, metadata, true);
+        }
+        return sink.toString();
+    }
 }